@@ -2,9 +2,17 @@ package com.helha.backend;
 
 import org.modelmapper.ModelMapper;
 import org.modelmapper.config.Configuration;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 @org.springframework.context.annotation.Configuration
 
 public class AppConfig {
@@ -16,4 +24,34 @@ public class AppConfig {
                 .setFieldAccessLevel(Configuration.AccessLevel.PRIVATE);
         return modelMapper;
     }
-}
\ No newline at end of file
+
+    // deflate workers shared by all the ZIP exports (one per core unless configured)
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService zipCompressionPool(@Value("${app.export.compression-threads:0}") int threads) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        CustomizableThreadFactory factory = new CustomizableThreadFactory("zip-deflate-");
+        factory.setDaemon(true);
+        return Executors.newFixedThreadPool(size, factory);
+    }
+
+    // background export jobs: a few at a time, the others wait in a bounded queue (then 429)
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService exportJobPool(@Value("${app.export.job-threads:2}") int threads,
+                                         @Value("${app.export.job-queue:16}") int queueSize) {
+        CustomizableThreadFactory factory = new CustomizableThreadFactory("export-job-");
+        factory.setDaemon(true);
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), factory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // BCrypt of the logins and registrations: one thread per core unless configured, bounded queue (then 429)
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordHashingPool(@Value("${app.password-hashing.threads:0}") int threads,
+                                                  @Value("${app.password-hashing.queue:64}") int queueSize) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        CustomizableThreadFactory factory = new CustomizableThreadFactory("password-hash-");
+        factory.setDaemon(true);
+        return new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), factory, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,13 @@
+package com.helha.backend.application.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// dto for a folder of the bin (what went to the bin with it comes back with its restore)
+@Data
+public class BinFolderDto {
+    private Long id;
+    private String name;
+    private Long parentId;
+    private LocalDateTime deletedAt;
+}
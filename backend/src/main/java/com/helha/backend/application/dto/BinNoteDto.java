@@ -0,0 +1,14 @@
+package com.helha.backend.application.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// dto for a note of the bin (no content, the full note comes from GET /api/notes/{id})
+@Data
+public class BinNoteDto {
+    private Long id;
+    private String title;
+    private Long folderId;
+    private LocalDateTime deletedAt;
+    private long sizeInBytes;
+}
@@ -0,0 +1,11 @@
+package com.helha.backend.application.dto;
+
+import lombok.Data;
+
+// dto for the result of a bulk operation on the bin: how many notes and folders it restored or deleted
+// (what came back or went away along with a folder is counted too)
+@Data
+public class BinOperationResultDto {
+    private int notes;
+    private int folders;
+}
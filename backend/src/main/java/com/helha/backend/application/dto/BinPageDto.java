@@ -0,0 +1,13 @@
+package com.helha.backend.application.dto;
+
+import lombok.Data;
+import java.util.List;
+
+// dto for one page of the bin, most recently deleted first
+@Data
+public class BinPageDto<T> {
+    private List<T> items;
+
+    // to pass as "cursor" to get the next page, null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,11 @@
+package com.helha.backend.application.dto;
+
+import lombok.Data;
+import java.util.List;
+
+// dto for a bulk operation on the bin: the notes and folders picked by the user
+@Data
+public class BinSelectionDto {
+    private List<Long> noteIds;
+    private List<Long> folderIds;
+}
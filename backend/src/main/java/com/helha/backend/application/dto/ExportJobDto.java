@@ -0,0 +1,22 @@
+package com.helha.backend.application.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// state of a background export (POST /api/exports, GET /api/exports/{id})
+@Data
+public class ExportJobDto {
+    private String id;
+    // PENDING, RUNNING, DONE or FAILED
+    private String status;
+    private int progress;
+    private long totalNotes;
+    private long readNotes;
+    // size of the archive once DONE
+    private long sizeInBytes;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+    // set once DONE
+    private String downloadUrl;
+}
@@ -0,0 +1,14 @@
+package com.helha.backend.application.dto;
+
+import lombok.Data;
+import java.util.List;
+
+// dto for one page of the direct children of a folder (sub-folders first, then notes)
+@Data
+public class FolderChildrenDto {
+    private List<FolderHeaderDto> folders;
+    private List<NoteHeaderDto> notes;
+
+    // to pass as "cursor" to get the next page, null on the last page
+    private String nextCursor;
+}
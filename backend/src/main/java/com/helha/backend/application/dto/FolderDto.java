@@ -14,6 +14,6 @@ public class FolderDto {
     //Recursive list of sub-folders to support a tree hierarchy
     private List<FolderDto> children;
 
-    // List of notes in this folder
-    private List<NoteDto> notes;
+    // Outline of the notes in this folder (without their content)
+    private List<NoteHeaderDto> notes;
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.helha.backend.application.dto;
+
+import lombok.Data;
+
+// dto for a folder without its content (lazy tree, one level at a time)
+@Data
+public class FolderHeaderDto {
+    private Long id;
+    private String name;
+    private Long parentId;
+
+    // true if the folder holds active sub-folders or notes (the node can be expanded)
+    private boolean hasChildren;
+}
@@ -0,0 +1,10 @@
+package com.helha.backend.application.dto;
+
+import lombok.Data;
+
+// dto to move a folder under another one
+@Data
+public class FolderMoveDto {
+    // new parent folder, null to move the folder to the root
+    private Long parentId;
+}
@@ -0,0 +1,15 @@
+package com.helha.backend.application.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// dto for a folder changed since a version
+@Data
+public class FolderSyncDto {
+    private Long id;
+    private String name;
+    private Long parentId;
+    private boolean deleted;
+    private LocalDateTime deletedAt;
+    private long version;
+}
@@ -0,0 +1,13 @@
+package com.helha.backend.application.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+// dto for an incremental content update (autosave), applied in order on the base version
+@Data
+public class NoteContentPatchDto {
+    // version of the note the edits were made on (NoteDto.version)
+    private Long baseVersion;
+    private List<NoteEditDto> edits;
+}
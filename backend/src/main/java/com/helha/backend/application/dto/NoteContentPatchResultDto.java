@@ -0,0 +1,19 @@
+package com.helha.backend.application.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// answer of an incremental update: the new version and stats, without the content
+@Data
+public class NoteContentPatchResultDto {
+    private Long id;
+    private long version;
+
+    private int wordCount;
+    private int lineCount;
+    private int characterCount;
+    private long sizeInBytes;
+
+    private LocalDateTime updatedAt;
+}
@@ -17,6 +17,9 @@ public class NoteDto {
     private int characterCount;
     private long sizeInBytes;
 
+    // version of the last change, sent back as baseVersion by PATCH /api/notes/{id}/content
+    private long version;
+
     //for the dates
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
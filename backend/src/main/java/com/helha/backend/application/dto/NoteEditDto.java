@@ -0,0 +1,12 @@
+package com.helha.backend.application.dto;
+
+import lombok.Data;
+
+// one text edit: replaces deleteLength characters at offset with text
+@Data
+public class NoteEditDto {
+    // position in the content, in UTF-16 units (JavaScript string indexes)
+    private int offset;
+    private int deleteLength;
+    private String text;
+}
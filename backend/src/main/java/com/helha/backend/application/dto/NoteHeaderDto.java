@@ -0,0 +1,19 @@
+package com.helha.backend.application.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// dto for the outline of a note (no content, the full note comes from GET /api/notes/{id})
+@Data
+public class NoteHeaderDto {
+    private Long id;
+    private String title;
+    private Long folderId;
+    private LocalDateTime updatedAt;
+
+    //metadata counters
+    private int wordCount;
+    private int lineCount;
+    private int characterCount;
+    private long sizeInBytes;
+}
@@ -0,0 +1,16 @@
+package com.helha.backend.application.dto;
+
+import lombok.Data;
+
+// summary of an import: what was created, what was left out, and how fast it went
+@Data
+public class NoteImportResultDto {
+    private int foldersCreated;
+    private int notesCreated;
+    // entries that are not markdown, hidden, or too large
+    private int skippedEntries;
+    private long sizeInBytes;
+
+    private long durationMs;
+    private double notesPerSecond;
+}
@@ -0,0 +1,10 @@
+package com.helha.backend.application.dto;
+
+import lombok.Data;
+
+// dto to move a note to another folder
+@Data
+public class NoteMoveDto {
+    // target folder, null to move the note to the root
+    private Long folderId;
+}
@@ -0,0 +1,22 @@
+package com.helha.backend.application.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// dto for a note changed since a version (the content is fetched with GET /api/notes/{id})
+@Data
+public class NoteSyncDto {
+    private Long id;
+    private String title;
+    private Long folderId;
+    private LocalDateTime updatedAt;
+
+    private int wordCount;
+    private int lineCount;
+    private int characterCount;
+    private long sizeInBytes;
+
+    private boolean deleted;
+    private LocalDateTime deletedAt;
+    private long version;
+}
@@ -0,0 +1,21 @@
+package com.helha.backend.application.dto;
+
+import lombok.Data;
+import java.util.List;
+
+// dto for the changes of the user since a version (GET /api/sync?since=N)
+@Data
+public class SyncDto {
+    // version reached by this response, to send as "since" on the next call
+    private long version;
+
+    // true when "since" is unknown to the server: the lists then hold the full snapshot
+    private boolean fullResync;
+
+    // created, updated, binned or restored items (deleted = true for the bin)
+    private List<FolderSyncDto> folders;
+    private List<NoteSyncDto> notes;
+
+    // items permanently deleted
+    private List<TombstoneDto> removed;
+}
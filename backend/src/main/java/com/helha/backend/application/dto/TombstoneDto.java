@@ -0,0 +1,12 @@
+package com.helha.backend.application.dto;
+
+import lombok.Data;
+
+// dto for a note or folder permanently deleted
+@Data
+public class TombstoneDto {
+    // NOTE or FOLDER
+    private String kind;
+    private Long id;
+    private long version;
+}
@@ -1,6 +1,7 @@
 package com.helha.backend.application.services;
 
 import com.helha.backend.application.dto.AuthRequestDto;
+import com.helha.backend.controllers.exceptions.GenericNotFoundException;
 import com.helha.backend.domain.models.DbUser;
 import com.helha.backend.domain.repositories.IUserRepository;
 import com.helha.backend.infrastructure.security.JwtUtils;
@@ -40,7 +41,9 @@ public class AuthService {
                 new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
         );
 
-        // If authentication succeeds, generate and return a secure JWT token
-        return jwtUtils.generateToken(request.getUsername());
+        // If authentication succeeds, generate and return a secure JWT token (with the id and role of the user)
+        DbUser user = userRepository.findByUsername(request.getUsername())
+                .orElseThrow(() -> new GenericNotFoundException("User " + request.getUsername()));
+        return jwtUtils.generateToken(user);
     }
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.helha.backend.application.services;
+
+import com.helha.backend.application.dto.BinOperationResultDto;
+import com.helha.backend.application.dto.BinSelectionDto;
+import com.helha.backend.controllers.exceptions.GenericBadRequestException;
+import com.helha.backend.domain.repositories.IFolderRepository;
+import com.helha.backend.domain.repositories.INoteRepository;
+import com.helha.backend.domain.repositories.projections.BinRestoreView;
+import com.helha.backend.infrastructure.security.AuthenticatedUser;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bulk operations on the bin: restore or permanently delete a selection, or empty the whole bin.
+ * Each one is a few set-based statements scoped by the user, whatever the number of items;
+ * ids of other users or of items that are not in the bin are ignored, the result tells what was done.
+ */
+@Service
+public class BinService {
+
+    // ids per request, so the "in" lists stay reasonable
+    static final int MAX_SELECTION = 1000;
+
+    private final INoteRepository noteRepository;
+    private final IFolderRepository folderRepository;
+    private final FolderService folderService;
+    private final CleanupService cleanupService;
+    private final TreeVersionService treeVersionService;
+    private final EntityManager entityManager;
+
+    public BinService(INoteRepository noteRepository, IFolderRepository folderRepository,
+                      FolderService folderService, CleanupService cleanupService,
+                      TreeVersionService treeVersionService, EntityManager entityManager) {
+        this.noteRepository = noteRepository;
+        this.folderRepository = folderRepository;
+        this.folderService = folderService;
+        this.cleanupService = cleanupService;
+        this.treeVersionService = treeVersionService;
+        this.entityManager = entityManager;
+    }
+
+    // Restores the picked folders (with what was binned along with them), then the picked notes.
+    // Same rules as one by one: a folder or a note whose parent stays in the bin comes back at the root level.
+    @Transactional
+    public BinOperationResultDto restore(BinSelectionDto selection) {
+        Long userId = AuthenticatedUser.currentId();
+        Set<Long> noteIds = ids(selection.getNoteIds());
+        Set<Long> folderIds = ids(selection.getFolderIds());
+        BinOperationResultDto restored = new BinOperationResultDto();
+        if (noteIds.isEmpty() && folderIds.isEmpty()) return restored;
+
+        long version = treeVersionService.bump(userId);
+        if (!folderIds.isEmpty()) restoreFolders(userId, folderIds, version, restored);
+        if (!noteIds.isEmpty()) {
+            noteRepository.detachFromBinnedFolders(userId, noteIds);
+            restored.setNotes(restored.getNotes() + noteRepository.restoreAll(userId, noteIds, version));
+        }
+        return restored;
+    }
+
+    // The folders binned on their own come back with their whole deletion batch, two statements for all of them.
+    // Only those whose parent stays in the bin are then moved one by one to the root level (path rewrite).
+    // The others (picked although binned with a parent, or binned before deletion batches existed) go
+    // through the restore of a single folder.
+    private void restoreFolders(Long userId, Set<Long> folderIds, long version, BinOperationResultDto restored) {
+        List<BinRestoreView> folders = folderRepository.findRestorableAmong(userId, folderIds);
+        Set<String> batches = new HashSet<>();
+        Set<Long> others = new LinkedHashSet<>();
+        for (BinRestoreView folder : folders) {
+            if (folder.isBinRoot() && folder.getDeletionBatch() != null) batches.add(folder.getDeletionBatch());
+            else others.add(folder.getId());
+        }
+
+        if (!batches.isEmpty()) {
+            restored.setFolders(restored.getFolders() + folderRepository.restoreBatches(userId, batches, version));
+            restored.setNotes(restored.getNotes() + noteRepository.restoreBatches(userId, batches, version));
+            // a parent picked too comes back, with its batch or on its own below: the folder stays inside it
+            for (BinRestoreView folder : folders) {
+                boolean restoredRoot = folder.isBinRoot() && folder.getDeletionBatch() != null;
+                boolean parentStaysInBin = Boolean.TRUE.equals(folder.getParentDeleted())
+                        && !batches.contains(folder.getParentBatch()) && !others.contains(folder.getParentId());
+                if (restoredRoot && parentStaysInBin) {
+                    // the bulk updates bypass the persistence context: read the folder again
+                    entityManager.clear();
+                    folderService.moveToRoot(userId, folder.getId());
+                }
+            }
+        }
+
+        for (Long id : others) {
+            entityManager.clear();
+            folderRepository.findById(id)
+                    .filter(folder -> folder.isDeleted()) // not already back with its parent
+                    .ifPresent(folder -> folderService.restore(userId, folder, version, restored));
+        }
+    }
+
+    // Permanently deletes the picked notes and folders (folders with their whole subtree)
+    public BinOperationResultDto delete(BinSelectionDto selection) {
+        Long userId = AuthenticatedUser.currentId();
+        return cleanupService.purge(userId, ids(selection.getNoteIds()), ids(selection.getFolderIds()));
+    }
+
+    // Permanently deletes everything in the bin
+    public BinOperationResultDto empty() {
+        return cleanupService.emptyBin(AuthenticatedUser.currentId());
+    }
+
+    private static Set<Long> ids(List<Long> ids) {
+        if (ids == null) return Set.of();
+        if (ids.size() > MAX_SELECTION) {
+            throw new GenericBadRequestException("At most " + MAX_SELECTION + " ids per request");
+        }
+        Set<Long> unique = new LinkedHashSet<>(ids);
+        unique.remove(null);
+        return unique;
+    }
+}
@@ -1,54 +1,340 @@
 package com.helha.backend.application.services;
 
-import com.helha.backend.domain.models.DbFolder;
-import com.helha.backend.domain.models.DbNote;
+import com.helha.backend.application.dto.BinOperationResultDto;
+import com.helha.backend.domain.models.DbTombstone;
 import com.helha.backend.domain.repositories.IFolderRepository;
 import com.helha.backend.domain.repositories.INoteRepository;
+import com.helha.backend.domain.repositories.projections.ExpiredFolderView;
+import com.helha.backend.domain.repositories.projections.ExpiredNoteView;
+import com.helha.backend.infrastructure.scheduling.JobLease;
+import com.helha.backend.infrastructure.scheduling.JobLeases;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
+/**
+ * Permanent deletion of what has stayed in the bin longer than the retention.
+ * Rows are never loaded as entities: ids are read in chunks and deleted with one statement per chunk,
+ * each chunk in its own short transaction (tombstones and tree version included), so the nightly run
+ * neither holds locks for long nor fills the persistence context.
+ * An expired folder is purged bottom-up: the notes of its subtree, then its sub-folders from the deepest
+ * level, then the folder itself. A run that stops half-way leaves a valid tree, finished by the next run.
+ * With several instances, the users are split into shards (user id modulo app.cleanup.shards), each purged
+ * under its own lease (see {@link JobLeases}): the instances share the work without ever purging the same
+ * rows, and a shard whose holder dies is taken over by another instance.
+ * Each shard also prunes the sync tombstones older than app.cleanup.tombstone-retention (see {@link SyncService}).
+ * The same chunks serve the permanent deletions asked by a user (picked items, or the whole bin),
+ * without a lease: they only touch the rows of that user.
+ */
 @Service
 public class CleanupService {
 
+    private static final Logger log = LoggerFactory.getLogger(CleanupService.class);
+
+    // lease of each shard: "bin-cleanup#0", "bin-cleanup#1", ...
+    static final String LEASE_NAME = "bin-cleanup";
+
+    // purges asked by a user hold no lease
+    private static final Runnable NO_LEASE = () -> { };
+
     private final INoteRepository noteRepository;
     private final IFolderRepository folderRepository;
+    private final TreeVersionService treeVersionService;
+    private final SyncService syncService;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLeases leases;
+    private final Duration retention;
+    private final Duration tombstoneRetention;
+    private final Pageable chunk;
+    private final int shards;
+    private final Duration leaseTtl;
+    private final Duration leaseRetry;
+    private final Duration runWindow;
+
+    // "bin.cleanup.purged" of the nightly run and of the requests of the users
+    private final PurgeCounters scheduledPurges;
+    private final PurgeCounters userPurges;
+    private final Timer chunkTimer;
+    private final Timer runTimer;
 
-    public CleanupService(INoteRepository noteRepository, IFolderRepository folderRepository) {
+    public CleanupService(INoteRepository noteRepository, IFolderRepository folderRepository,
+                          TreeVersionService treeVersionService, SyncService syncService,
+                          PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                          JobLeases leases,
+                          @Value("${app.cleanup.retention:30d}") Duration retention,
+                          @Value("${app.cleanup.tombstone-retention:90d}") Duration tombstoneRetention,
+                          @Value("${app.cleanup.chunk-size:500}") int chunkSize,
+                          @Value("${app.cleanup.shards:4}") int shards,
+                          @Value("${app.cleanup.lease-ttl:2m}") Duration leaseTtl,
+                          @Value("${app.cleanup.run-window:1h}") Duration runWindow) {
         this.noteRepository = noteRepository;
         this.folderRepository = folderRepository;
+        this.treeVersionService = treeVersionService;
+        this.syncService = syncService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leases = leases;
+        this.retention = retention;
+        this.tombstoneRetention = tombstoneRetention;
+        this.chunk = PageRequest.ofSize(Math.max(1, chunkSize));
+        this.shards = Math.max(1, shards);
+        this.leaseTtl = leaseTtl;
+        // a held shard is looked at again about when its holder renews its lease
+        this.leaseRetry = leaseTtl.dividedBy(3);
+        this.runWindow = runWindow;
+
+        this.scheduledPurges = new PurgeCounters(meterRegistry, "scheduled");
+        this.userPurges = new PurgeCounters(meterRegistry, "user");
+        this.chunkTimer = Timer.builder("bin.cleanup.chunk")
+                .description("Duration of one chunk transaction of the bin cleanup").register(meterRegistry);
+        this.runTimer = Timer.builder("bin.cleanup.run")
+                .description("Duration of a whole bin cleanup").register(meterRegistry);
     }
 
     /**
      * Automatic task that runs every day at 4:00 AM.
-     * It permanently deletes items that have been in the bin for more than 30 days.
+     * It permanently deletes items that have been in the bin for longer than the retention (30 days by default).
      * Cron expression: Seconds Minutes Hours DayOfMonth Month DayOfWeek
      */
-    @Scheduled(cron = "0 0 4 * * ?")
-    @Transactional
+    @Scheduled(cron = "${app.cleanup.cron:0 0 4 * * ?}")
     public void removeExpiredItems() {
-        // Calculate the cutoff date (30 days ago)
-        LocalDateTime thresholdDate = LocalDateTime.now().minusDays(30);
+        LocalDateTime thresholdDate = LocalDateTime.now().minus(retention);
+        // a shard completed this recently was done by another instance for this same run
+        LocalDateTime doneSince = LocalDateTime.now().minus(runWindow);
+        log.info("Starting bin cleanup for items older than {} on {}", thresholdDate, leases.getInstanceId());
+
+        Purged purged = new Purged(scheduledPurges);
+        runTimer.record(() -> {
+            // every instance goes through all the shards, starting at a random one so they spread out;
+            // a shard held by another instance is tried again once it is released or its lease expired
+            List<Integer> pending = new ArrayList<>(shards);
+            int first = ThreadLocalRandom.current().nextInt(shards);
+            for (int i = 0; i < shards; i++) pending.add((first + i) % shards);
+            while (!pending.isEmpty()) {
+                pending.removeIf(shard -> purgeShard(shard, thresholdDate, doneSince, purged));
+                if (!pending.isEmpty() && !sleep(leaseRetry)) return;
+            }
+        });
+
+        log.info("Bin cleanup finished: {} notes and {} folders permanently deleted by this instance",
+                purged.notes, purged.folders);
+    }
+
+    /**
+     * Permanent deletion of notes and folders picked in the bin of a user, folders with their whole subtree.
+     * Ids of other users, or of items that are not in the bin, are ignored.
+     */
+    public BinOperationResultDto purge(Long userId, Collection<Long> noteIds, Collection<Long> folderIds) {
+        Purged purged = new Purged(userPurges);
+        if (!noteIds.isEmpty()) {
+            inChunk(() -> {
+                List<Long> ids = noteRepository.findBinIdsAmong(userId, noteIds);
+                deleteNotes(userId, ids, purged);
+                return ids.size();
+            });
+        }
+        if (!folderIds.isEmpty()) {
+            folderRepository.findBinFoldersAmong(userId, folderIds).forEach(folder -> purgeFolder(folder, NO_LEASE, purged));
+        }
+        return purged.toDto();
+    }
+
+    // Permanent deletion of everything in the bin of a user, in chunks like the nightly run
+    public BinOperationResultDto emptyBin(Long userId) {
+        Purged purged = new Purged(userPurges);
+        inChunks(NO_LEASE, () -> {
+            List<Long> ids = noteRepository.findBinIds(userId, chunk);
+            deleteNotes(userId, ids, purged);
+            return ids.size();
+        });
+        List<ExpiredFolderView> binned;
+        do {
+            binned = folderRepository.findBinFolders(userId, chunk);
+            binned.forEach(folder -> purgeFolder(folder, NO_LEASE, purged));
+        } while (binned.size() == chunk.getPageSize());
+        return purged.toDto();
+    }
+
+    // false when another instance holds the shard; true once it is purged, by this instance or another one
+    private boolean purgeShard(int shard, LocalDateTime thresholdDate, LocalDateTime doneSince, Purged purged) {
+        String name = LEASE_NAME + "#" + shard;
+        Optional<JobLease> acquired = leases.tryAcquire(name, leaseTtl, doneSince);
+        if (acquired.isEmpty()) return leases.isCompletedSince(name, doneSince);
+        try (JobLease lease = acquired.get()) {
+            // 1. Expired notes
+            inChunks(lease::keepAlive, () -> purgeExpiredNotes(thresholdDate, shard, purged));
+
+            // 2. Expired folders, with everything below them
+            List<ExpiredFolderView> expired;
+            do {
+                expired = folderRepository.findExpired(thresholdDate, shard, shards, chunk);
+                expired.forEach(folder -> purgeFolder(folder, lease::keepAlive, purged));
+            } while (expired.size() == chunk.getPageSize());
+
+            // 3. Tombstones past their retention: the horizon of their users first, so no client
+            // misses a deletion whose tombstone is gone
+            LocalDateTime tombstoneThreshold = LocalDateTime.now().minus(tombstoneRetention);
+            inChunk(() -> {
+                syncService.raiseSyncHorizons(tombstoneThreshold, shard, shards);
+                return 0;
+            });
+            inChunks(lease::keepAlive, () -> syncService.pruneTombstones(tombstoneThreshold, shard, shards, chunk));
+            lease.complete();
+        } catch (JobLease.LeaseLostException e) {
+            // taken over after a pause longer than the lease (GC, network): the other instance finishes it
+            log.warn(e.getMessage());
+        }
+        return true;
+    }
+
+    private int purgeExpiredNotes(LocalDateTime thresholdDate, int shard, Purged purged) {
+        List<ExpiredNoteView> expired = noteRepository.findExpired(thresholdDate, shard, shards, chunk);
+        Map<Long, List<Long>> idsByUser = new HashMap<>();
+        List<Long> ownerless = new ArrayList<>();
+        for (ExpiredNoteView note : expired) {
+            if (note.getUserId() == null) ownerless.add(note.getId());
+            else idsByUser.computeIfAbsent(note.getUserId(), key -> new ArrayList<>()).add(note.getId());
+        }
+        idsByUser.forEach((userId, ids) -> deleteNotes(userId, ids, purged));
+        // no user, so no client to tell
+        if (!ownerless.isEmpty()) {
+            noteRepository.deleteAllByIdInBatch(ownerless);
+            purged.addNotes(ownerless.size());
+        }
+        return expired.size();
+    }
 
-        System.out.println("🧹 Starting Bin Cleanup for items older than: " + thresholdDate);
+    // heartbeat: run before each chunk (renews the lease of the nightly run)
+    private void purgeFolder(ExpiredFolderView folder, Runnable heartbeat, Purged purged) {
+        Long userId = folder.getUserId();
+        String prefix = folder.getSubtreePrefix();
+        // already gone with an ancestor purged earlier in this run
+        if (!folderRepository.existsById(folder.getId())) return;
 
-        // 1. Delete expired notes
-        List<DbNote> expiredNotes = noteRepository.findByDeletedTrueAndDeletedAtBefore(thresholdDate);
-        if (!expiredNotes.isEmpty()) {
-            noteRepository.deleteAll(expiredNotes);
-            System.out.println("   -> Permanently deleted " + expiredNotes.size() + " notes.");
+        // notes of the folder and of its descendants
+        inChunks(heartbeat, () -> {
+            List<Long> ids = noteRepository.findIdsInSubtree(userId, folder.getId(), prefix, chunk);
+            deleteNotes(userId, ids, purged);
+            return ids.size();
+        });
+
+        // descendants, deepest level first: a folder is deleted after all its children
+        Integer maxDepth = folderRepository.findMaxDepthInSubtree(userId, prefix);
+        for (int depth = maxDepth == null ? folder.getDepth() : maxDepth; depth > folder.getDepth(); depth--) {
+            int level = depth;
+            inChunks(heartbeat, () -> {
+                List<Long> ids = folderRepository.findSubtreeIdsAtDepth(userId, prefix, level, chunk);
+                deleteFolders(userId, ids, purged);
+                return ids.size();
+            });
         }
 
-        // 2. Delete expired folders
-        List<DbFolder> expiredFolders = folderRepository.findByDeletedTrueAndDeletedAtBefore(thresholdDate);
-        if (!expiredFolders.isEmpty()) {
-            folderRepository.deleteAll(expiredFolders);
-            System.out.println("   -> Permanently deleted " + expiredFolders.size() + " folders.");
+        heartbeat.run();
+        inChunk(() -> {
+            deleteFolders(userId, List.of(folder.getId()), purged);
+            return 1;
+        });
+    }
+
+    // --- Inside a chunk transaction ---
+
+    private void deleteNotes(Long userId, List<Long> ids, Purged purged) {
+        if (ids.isEmpty()) return;
+        syncService.recordRemovals(userId, DbTombstone.Kind.NOTE, ids, treeVersionService.bump(userId));
+        noteRepository.deleteAllByIdInBatch(ids);
+        purged.addNotes(ids.size());
+    }
+
+    private void deleteFolders(Long userId, List<Long> ids, Purged purged) {
+        if (ids.isEmpty()) return;
+        syncService.recordRemovals(userId, DbTombstone.Kind.FOLDER, ids, treeVersionService.bump(userId));
+        folderRepository.deleteAllByIdInBatch(ids);
+        purged.addFolders(ids.size());
+    }
+
+    // chunk after chunk until one comes back short: the rows deleted are not read again.
+    // The heartbeat (lease renewal) runs between the chunks.
+    private void inChunks(Runnable heartbeat, Supplier<Integer> work) {
+        int handled;
+        do {
+            heartbeat.run();
+            handled = inChunk(work);
+        } while (handled == chunk.getPageSize());
+    }
+
+    private static boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
+    }
+
+    // one short transaction, timed; returns the number of rows the chunk handled
+    private int inChunk(Supplier<Integer> work) {
+        Integer handled = chunkTimer.record(() -> transactionTemplate.execute(status -> work.get()));
+        return handled == null ? 0 : handled;
+    }
 
-        System.out.println("✅ Bin Cleanup finished.");
+    // "bin.cleanup.purged" by kind, for one trigger: the nightly run ("scheduled") or the users ("user")
+    private static final class PurgeCounters {
+        private final Counter notes;
+        private final Counter folders;
+
+        private PurgeCounters(MeterRegistry meterRegistry, String trigger) {
+            this.notes = Counter.builder("bin.cleanup.purged").tag("kind", "note").tag("trigger", trigger)
+                    .description("Notes permanently deleted from the bin").register(meterRegistry);
+            this.folders = Counter.builder("bin.cleanup.purged").tag("kind", "folder").tag("trigger", trigger)
+                    .description("Folders permanently deleted from the bin").register(meterRegistry);
+        }
+    }
+
+    // what one run or one request deleted (the counters add up every run or request of the instance)
+    private static final class Purged {
+        private final PurgeCounters counters;
+        int notes;
+        int folders;
+
+        Purged(PurgeCounters counters) {
+            this.counters = counters;
+        }
+
+        void addNotes(int count) {
+            notes += count;
+            counters.notes.increment(count);
+        }
+
+        void addFolders(int count) {
+            folders += count;
+            counters.folders.increment(count);
+        }
+
+        BinOperationResultDto toDto() {
+            BinOperationResultDto dto = new BinOperationResultDto();
+            dto.setNotes(notes);
+            dto.setFolders(folders);
+            return dto;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,188 @@
+package com.helha.backend.application.services;
+
+import com.helha.backend.application.dto.ExportJobDto;
+import com.helha.backend.controllers.exceptions.GenericNotFoundException;
+import com.helha.backend.controllers.exceptions.GenericTooManyRequestsException;
+import com.helha.backend.domain.repositories.projections.UserVersionView;
+import com.helha.backend.infrastructure.export.ExportJob;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Background ZIP exports written to local disk, so no request thread waits for a big archive.
+ * A finished archive is reused while the tree version of the user is unchanged, and the janitor
+ * deletes it once it expires. The jobs live in memory, like the files they point to: both belong
+ * to this instance, and the export directory is emptied at startup.
+ */
+@Service
+public class ExportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportJobService.class);
+
+    private final ExportService exportService;
+    private final TreeVersionService treeVersionService;
+    private final ExecutorService jobPool;
+    private final Path directory;
+    private final Duration timeToLive;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    // latest job of each (user, tree version): looked up and replaced under its own lock,
+    // so concurrent requests for the same tree share one export
+    private final Map<VersionKey, ExportJob> jobsByVersion = new HashMap<>();
+
+    private record VersionKey(Long userId, long treeVersion) {
+    }
+
+    public ExportJobService(ExportService exportService, TreeVersionService treeVersionService,
+                            @Qualifier("exportJobPool") ExecutorService jobPool,
+                            @Value("${app.export.directory:${java.io.tmpdir}/spooky-exports}") Path directory,
+                            @Value("${app.export.time-to-live:1h}") Duration timeToLive) {
+        this.exportService = exportService;
+        this.treeVersionService = treeVersionService;
+        this.jobPool = jobPool;
+        this.directory = directory;
+        this.timeToLive = timeToLive;
+    }
+
+    // the jobs of a previous run are gone, so are their files
+    @PostConstruct
+    void prepareDirectory() throws IOException {
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory)) {
+            for (Path file : leftovers) Files.deleteIfExists(file);
+        }
+    }
+
+    // starts an export, or returns the running/finished one built from the same tree version
+    public ExportJobDto startExport() {
+        UserVersionView user = treeVersionService.currentUserVersion();
+        VersionKey key = new VersionKey(user.getId(), user.getTreeVersion());
+        LocalDateTime now = LocalDateTime.now();
+
+        ExportJob job;
+        synchronized (jobsByVersion) {
+            ExportJob existing = jobsByVersion.get(key);
+            if (existing != null && existing.getStatus() != ExportJob.Status.FAILED && !existing.isExpired(now)) {
+                return toDto(existing);
+            }
+            String id = UUID.randomUUID().toString();
+            job = new ExportJob(id, user.getId(), user.getTreeVersion(), directory.resolve(id + ".zip"));
+            jobsByVersion.put(key, job);
+            jobs.put(id, job);
+        }
+        submit(key, job);
+        return toDto(job);
+    }
+
+    private void submit(VersionKey key, ExportJob job) {
+        try {
+            jobPool.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            forget(key, job);
+            throw new GenericTooManyRequestsException("Too many exports in progress, retry later", Duration.ofSeconds(30));
+        }
+    }
+
+    public ExportJobDto getJob(String id) {
+        return toDto(findOwnJob(id));
+    }
+
+    // finished archive of one of the user's jobs (404 while it is not ready)
+    public ExportJob getDownloadableJob(String id) {
+        ExportJob job = findOwnJob(id);
+        if (job.getStatus() != ExportJob.Status.DONE || !Files.exists(job.getFile())) {
+            throw new GenericNotFoundException("Export archive " + id);
+        }
+        return job;
+    }
+
+    // worker thread: the archive is written to a temporary file, moved in place once complete
+    private void run(ExportJob job) {
+        Path partial = job.getFile().resolveSibling(job.getId() + ".part");
+        try {
+            job.start(exportService.countExportableNotes(job.getUserId()));
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial), 64 * 1024)) {
+                exportService.writeUserNotesZip(job.getUserId(), out, job::noteRead);
+            }
+            Files.move(partial, job.getFile(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            job.done(Files.size(job.getFile()), LocalDateTime.now().plus(timeToLive));
+        } catch (IOException | RuntimeException e) {
+            log.error("Export {} failed", job.getId(), e);
+            deleteQuietly(partial);
+            job.failed(LocalDateTime.now().plus(timeToLive));
+        }
+    }
+
+    // --- Janitor ---
+
+    @Scheduled(fixedDelayString = "${app.export.janitor-interval:PT10M}")
+    public void evictExpiredExports() {
+        LocalDateTime now = LocalDateTime.now();
+        for (ExportJob job : jobs.values()) {
+            if (!job.isExpired(now)) continue;
+            forget(new VersionKey(job.getUserId(), job.getTreeVersion()), job);
+            deleteQuietly(job.getFile());
+        }
+    }
+
+    private void forget(VersionKey key, ExportJob job) {
+        synchronized (jobsByVersion) {
+            jobsByVersion.remove(key, job);
+        }
+        jobs.remove(job.getId());
+    }
+
+    private ExportJob findOwnJob(String id) {
+        UserVersionView user = treeVersionService.currentUserVersion();
+        ExportJob job = jobs.get(id);
+        if (job == null || !job.getUserId().equals(user.getId())) {
+            throw new GenericNotFoundException("Export " + id);
+        }
+        return job;
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+
+    private ExportJobDto toDto(ExportJob job) {
+        ExportJobDto dto = new ExportJobDto();
+        dto.setId(job.getId());
+        dto.setStatus(job.getStatus().name());
+        dto.setProgress(job.getProgress());
+        dto.setTotalNotes(job.getTotalNotes());
+        dto.setReadNotes(job.getReadNotes());
+        dto.setSizeInBytes(job.getSizeInBytes());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setExpiresAt(job.getExpiresAt());
+        if (job.getStatus() == ExportJob.Status.DONE) {
+            dto.setDownloadUrl("/api/exports/" + job.getId() + "/download");
+        }
+        return dto;
+    }
+}
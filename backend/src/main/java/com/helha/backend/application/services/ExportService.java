@@ -1,113 +1,176 @@
 package com.helha.backend.application.services;
 
-import com.helha.backend.controllers.exceptions.GenericNotFoundException;
-import com.helha.backend.domain.models.DbFolder;
-import com.helha.backend.domain.models.DbNote;
-import com.helha.backend.domain.models.DbUser;
 import com.helha.backend.domain.repositories.IFolderRepository;
 import com.helha.backend.domain.repositories.INoteRepository;
-import com.helha.backend.domain.repositories.IUserRepository;
-import org.springframework.security.core.context.SecurityContextHolder;
+import com.helha.backend.domain.repositories.projections.FolderNodeView;
+import com.helha.backend.domain.repositories.projections.NoteExportView;
+import com.helha.backend.infrastructure.export.ParallelZipWriter;
+import com.helha.backend.infrastructure.security.AuthenticatedUser;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.Deflater;
+
+/**
+ * ZIP export of the active notes of a user, written straight to the response stream.
+ * Only the folder outline is held in memory; the notes and their content are read in
+ * keyset batches, each in its own short query, so the heap does not grow with the library.
+ * The entries are deflated in parallel on the shared compression pool and written in order.
+ */
 @Service
 public class ExportService {
+
+    // notes (with their content) held in memory at once
+    static final int BATCH_SIZE = 200;
+
     private final IFolderRepository folderRepository;
-    private final IUserRepository userRepository;
     private final INoteRepository noteRepository;
+    private final ExecutorService compressionPool;
+    // entries queued or being compressed per export
+    private final int maxInFlight;
 
-    public ExportService(IFolderRepository folderRepository, IUserRepository userRepository, INoteRepository noteRepository) {
+    public ExportService(IFolderRepository folderRepository, INoteRepository noteRepository,
+                         @Qualifier("zipCompressionPool") ExecutorService compressionPool,
+                         @Value("${app.export.max-in-flight:64}") int maxInFlight) {
         this.folderRepository = folderRepository;
-        this.userRepository = userRepository;
         this.noteRepository = noteRepository;
+        this.compressionPool = compressionPool;
+        this.maxInFlight = maxInFlight;
     }
 
-    private DbUser getCurrentUser() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new GenericNotFoundException(0L, "User " + username));
+    // resolved on the request thread: the archive itself is written on an async thread
+    public Long getCurrentUserId() {
+        return AuthenticatedUser.currentId();
     }
 
-    @Transactional(readOnly = true)
-    public byte[] exportUserNotesToZip() throws IOException {
-        DbUser user = getCurrentUser();
-
-        // CORRECTION 1 : Utiliser la méthode "...AndDeletedFalse"
-        List<DbFolder> rootFolders = folderRepository.findByUserIdAndParentIsNullAndDeletedFalse(user.getId());
-
-        // AJOUT : Récupérer aussi les notes qui sont à la racine (sans dossier)
-        List<DbNote> rootNotes = noteRepository.findByUserIdAndFolderIsNullAndDeletedFalse(user.getId());
+    // notes read by an export of this user (upper bound: notes below a binned folder are skipped)
+    public long countExportableNotes(Long userId) {
+        return noteRepository.countByUserIdAndDeletedFalse(userId);
+    }
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    public void writeUserNotesZip(Long userId, OutputStream out) throws IOException {
+        writeUserNotesZip(userId, out, () -> { });
+    }
 
-        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
-            // 1. Exporter les dossiers racines (et leur contenu récursivement)
-            for (DbFolder folder : rootFolders) {
-                zipFolder(folder, "", zos);
+    // not transactional on purpose: no connection is held while the client downloads.
+    // onNoteRead is called for every note read, exported or skipped (progress of the export jobs)
+    public void writeUserNotesZip(Long userId, OutputStream out, Runnable onNoteRead) throws IOException {
+        Map<Long, String> folderPaths = computeFolderPaths(userId);
+
+        try (ParallelZipWriter zip = new ParallelZipWriter(out, compressionPool, maxInFlight, Deflater.DEFAULT_COMPRESSION)) {
+            // 1. Les dossiers (un parent est toujours écrit avant ses enfants)
+            List<String> directories = new ArrayList<>(folderPaths.values());
+            directories.sort(null);
+            for (String directory : directories) {
+                zip.addDirectory(directory);
             }
 
-            // 2. Exporter les notes racines (à la base du ZIP)
-            for (DbNote note : rootNotes) {
-                // On vérifie (redondant avec la requête SQL mais plus sûr)
-                if (note.isDeleted()) continue;
-
-                String noteFileName = sanitizeFilename(note.getTitle()) + ".md";
-                ZipEntry entry = new ZipEntry(noteFileName);
-                zos.putNextEntry(entry);
-                String content = note.getContent() != null ? note.getContent() : "";
-                zos.write(content.getBytes(StandardCharsets.UTF_8));
-                zos.closeEntry();
-            }
+            // 2. Les notes racines (à la base du ZIP)
+            Set<String> names = new HashSet<>();
+            long afterId = 0;
+            List<NoteExportView> batch;
+            do {
+                batch = noteRepository.findRootNotesForExport(userId, afterId, PageRequest.ofSize(BATCH_SIZE));
+                for (NoteExportView note : batch) {
+                    writeNote(zip, "", note, names);
+                    afterId = note.getId();
+                    onNoteRead.run();
+                }
+            } while (batch.size() == BATCH_SIZE);
+
+            // 3. Les notes des dossiers, dossier par dossier
+            long afterFolderId = 0;
+            afterId = 0;
+            Long currentFolderId = null;
+            do {
+                batch = noteRepository.findFolderNotesForExport(userId, afterFolderId, afterId, PageRequest.ofSize(BATCH_SIZE));
+                for (NoteExportView note : batch) {
+                    if (!note.getFolderId().equals(currentFolderId)) {
+                        currentFolderId = note.getFolderId();
+                        names.clear();
+                    }
+                    afterFolderId = note.getFolderId();
+                    afterId = note.getId();
+                    // folder in the bin, or below a folder in the bin: not exported
+                    String directory = folderPaths.get(note.getFolderId());
+                    if (directory != null) writeNote(zip, directory, note, names);
+                    onNoteRead.run();
+                }
+            } while (batch.size() == BATCH_SIZE);
+
+            // the servlet container owns the response stream, it is not closed here
+            zip.finish();
         }
-
-        return baos.toByteArray();
     }
 
-    private void zipFolder(DbFolder folder, String parentPath, ZipOutputStream zos) throws IOException {
-        // CORRECTION 2 : Si le dossier est supprimé (bug de synchro possible), on l'ignore
-        if (folder.isDeleted()) return;
-
-        String currentPath = parentPath + sanitizeFilename(folder.getName()) + "/";
+    private void writeNote(ParallelZipWriter zip, String directory, NoteExportView note, Set<String> names) throws IOException {
+        String content = note.getContent() != null ? note.getContent() : "";
+        zip.addFile(directory + uniqueName(sanitizeFilename(note.getTitle()), ".md", names),
+                content.getBytes(StandardCharsets.UTF_8));
+    }
 
-        zos.putNextEntry(new ZipEntry(currentPath));
-        zos.closeEntry();
+    // ZIP path of every reachable active folder ("Racine/Sous-dossier/"), from the flat folder list
+    private Map<Long, String> computeFolderPaths(Long userId) {
+        List<FolderNodeView> nodes = folderRepository.findTreeNodesByUserId(userId);
+        Map<Long, FolderNodeView> byId = new HashMap<>(nodes.size() * 2);
+        for (FolderNodeView node : nodes) byId.put(node.getId(), node);
 
-        // Ajout des notes du dossier courant
-        if (folder.getDbNotes() != null) {
-            for (DbNote note : folder.getDbNotes()) {
-                // CORRECTION 3 : Ne pas exporter les notes supprimées
-                if (note.isDeleted()) continue;
+        Map<Long, String> paths = new HashMap<>(nodes.size() * 2);
+        Map<String, Set<String>> namesByDirectory = new HashMap<>();
+        for (FolderNodeView node : nodes) {
+            resolvePath(node, byId, paths, namesByDirectory);
+        }
+        paths.values().removeIf(path -> path.isEmpty());
+        return paths;
+    }
 
-                String noteFileName = currentPath + sanitizeFilename(note.getTitle()) + ".md";
-                ZipEntry entry = new ZipEntry(noteFileName);
-                zos.putNextEntry(entry);
-                String content = note.getContent() != null ? note.getContent() : "";
-                zos.write(content.getBytes(StandardCharsets.UTF_8));
-                zos.closeEntry();
-            }
+    // "" marks a folder that cannot be reached from a root (an ancestor is in the bin)
+    private String resolvePath(FolderNodeView node, Map<Long, FolderNodeView> byId,
+                               Map<Long, String> paths, Map<String, Set<String>> namesByDirectory) {
+        String known = paths.get(node.getId());
+        if (known != null) return known;
+
+        String parentPath;
+        if (node.getParentId() == null) {
+            parentPath = "";
+        } else {
+            FolderNodeView parent = byId.get(node.getParentId());
+            parentPath = parent == null ? null : resolvePath(parent, byId, paths, namesByDirectory);
+            if (parentPath != null && parentPath.isEmpty()) parentPath = null;
         }
 
-        // Récursivité sur les enfants
-        if (folder.getChildren() != null) {
-            for (DbFolder child : folder.getChildren()) {
-                // CORRECTION 4 : Ne pas exporter les sous-dossiers supprimés
-                if (child.isDeleted()) continue;
+        String path = "";
+        if (parentPath != null) {
+            Set<String> siblings = namesByDirectory.computeIfAbsent(parentPath, key -> new HashSet<>());
+            path = parentPath + uniqueName(sanitizeFilename(node.getName()), "/", siblings);
+        }
+        paths.put(node.getId(), path);
+        return path;
+    }
 
-                zipFolder(child, currentPath, zos);
-            }
+    // two notes (or folders) with the same name in one directory: "Titre.md", "Titre (2).md", ...
+    private String uniqueName(String base, String suffix, Set<String> taken) {
+        String name = base + suffix;
+        for (int i = 2; !taken.add(name); i++) {
+            name = base + " (" + i + ")" + suffix;
         }
+        return name;
     }
 
     private String sanitizeFilename(String input) {
         if (input == null) return "SansTitre";
         return input.replaceAll("[^a-zA-Z0-9 \\-_\\.]", "_");
     }
-}
\ No newline at end of file
+}
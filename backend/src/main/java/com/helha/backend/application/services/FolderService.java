@@ -1,112 +1,297 @@
 package com.helha.backend.application.services;
 
+import com.helha.backend.application.dto.BinFolderDto;
+import com.helha.backend.application.dto.BinOperationResultDto;
+import com.helha.backend.application.dto.BinPageDto;
+import com.helha.backend.application.dto.FolderChildrenDto;
 import com.helha.backend.application.dto.FolderCreationDto;
 import com.helha.backend.application.dto.FolderDto;
-import com.helha.backend.application.dto.NoteDto;
+import com.helha.backend.application.dto.FolderHeaderDto;
+import com.helha.backend.application.dto.FolderMoveDto;
+import com.helha.backend.application.dto.NoteHeaderDto;
+import com.helha.backend.application.utils.BinCursor;
+import com.helha.backend.application.utils.KeysetCursor;
+import com.helha.backend.controllers.exceptions.GenericBadRequestException;
 import com.helha.backend.controllers.exceptions.GenericNotFoundException;
 import com.helha.backend.domain.models.DbFolder;
 import com.helha.backend.domain.models.DbNote;
-import com.helha.backend.domain.models.DbUser;
 import com.helha.backend.domain.repositories.IFolderRepository;
+import com.helha.backend.domain.repositories.INoteRepository;
 import com.helha.backend.domain.repositories.IUserRepository;
-import org.springframework.security.core.context.SecurityContextHolder;
+import com.helha.backend.domain.repositories.projections.BinFolderView;
+import com.helha.backend.domain.repositories.projections.FolderChildView;
+import com.helha.backend.domain.repositories.projections.NoteHeaderView;
+import com.helha.backend.infrastructure.cache.FolderTreeCache;
+import com.helha.backend.infrastructure.security.AuthenticatedUser;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class FolderService {
 
+    // page size limit of the lazy tree
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final String FOLDERS_SECTION = "F";
+    private static final String NOTES_SECTION = "N";
+
     private final IFolderRepository folderRepository;
+    private final INoteRepository noteRepository;
     private final IUserRepository userRepository;
+    private final FolderTreeBuilder folderTreeBuilder;
+    private final FolderTreeCache folderTreeCache;
+    private final TreeVersionService treeVersionService;
+    private final SyncService syncService;
 
-    public FolderService(IFolderRepository folderRepository, IUserRepository userRepository) {
+    public FolderService(IFolderRepository folderRepository, INoteRepository noteRepository,
+                         IUserRepository userRepository,
+                         FolderTreeBuilder folderTreeBuilder, FolderTreeCache folderTreeCache,
+                         TreeVersionService treeVersionService, SyncService syncService) {
         this.folderRepository = folderRepository;
+        this.noteRepository = noteRepository;
         this.userRepository = userRepository;
-    }
-
-    private DbUser getCurrentUser() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new GenericNotFoundException(0L, "User " + username));
+        this.folderTreeBuilder = folderTreeBuilder;
+        this.folderTreeCache = folderTreeCache;
+        this.treeVersionService = treeVersionService;
+        this.syncService = syncService;
     }
 
     // --- Active Tree ---
     @Transactional(readOnly = true)
     public List<FolderDto> getFolderTree() {
-        DbUser user = getCurrentUser();
-        // Fetch only active roots
-        List<DbFolder> roots = folderRepository.findByUserIdAndParentIsNullAndDeletedFalse(user.getId());
-        return roots.stream().map(this::convertToDto).collect(Collectors.toList());
+        Long userId = AuthenticatedUser.currentId();
+        // Flat fetch of all active folders and notes, linked in memory (constant number of queries)
+        // and kept in the per-user cache until the next mutation bumps the tree version
+        return folderTreeCache.get(userId, userRepository.findTreeVersionById(userId), folderTreeBuilder::buildTree);
+    }
+
+    // --- Lazy Tree (one level, keyset pagination) ---
+    // folderId null = root level. Sub-folders come first (by name), then notes (by title).
+    @Transactional(readOnly = true)
+    public FolderChildrenDto getChildren(Long folderId, String cursor, int limit) {
+        Long userId = AuthenticatedUser.currentId();
+        if (folderId != null && !folderRepository.existsByIdAndUserIdAndDeletedFalse(folderId, userId)) {
+            throw new GenericNotFoundException(folderId, "Folder");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        if (after != null && !FOLDERS_SECTION.equals(after.section()) && !NOTES_SECTION.equals(after.section())) {
+            throw new GenericBadRequestException("Invalid pagination cursor");
+        }
+
+        FolderChildrenDto page = new FolderChildrenDto();
+        page.setFolders(new ArrayList<>());
+        page.setNotes(new ArrayList<>());
+
+        // 1. sub-folders (one extra row tells whether there is a next page)
+        if (after == null || FOLDERS_SECTION.equals(after.section())) {
+            String afterName = after == null ? "" : after.key();
+            long afterId = after == null ? 0 : after.id();
+            List<FolderChildView> folders = folderId == null
+                    ? folderRepository.findRootChildrenPage(userId, afterName, afterId, PageRequest.ofSize(size + 1))
+                    : folderRepository.findChildrenPage(userId, folderId, afterName, afterId, PageRequest.ofSize(size + 1));
+            for (FolderChildView folder : folders.subList(0, Math.min(size, folders.size()))) {
+                page.getFolders().add(toHeaderDto(folder));
+            }
+            if (folders.size() > size) {
+                FolderChildView last = folders.get(size - 1);
+                page.setNextCursor(new KeysetCursor(FOLDERS_SECTION, last.getName(), last.getId()).encode());
+                return page;
+            }
+        }
+
+        // 2. notes, in the room left on this page (none when the folders filled it: the query then
+        // only probes for a first note, so that there is a next page only when there are notes)
+        int remaining = size - page.getFolders().size();
+        boolean inNotes = after != null && NOTES_SECTION.equals(after.section());
+        String afterTitle = inNotes ? after.key() : "";
+        long afterId = inNotes ? after.id() : 0;
+        List<NoteHeaderView> notes = folderId == null
+                ? noteRepository.findRootNotesPage(userId, afterTitle, afterId, PageRequest.ofSize(remaining + 1))
+                : noteRepository.findFolderNotesPage(userId, folderId, afterTitle, afterId, PageRequest.ofSize(remaining + 1));
+        for (NoteHeaderView note : notes.subList(0, Math.min(remaining, notes.size()))) {
+            page.getNotes().add(FolderTreeBuilder.toHeaderDto(note));
+        }
+        if (notes.size() > remaining) {
+            NoteHeaderView last = remaining == 0 ? null : notes.get(remaining - 1);
+            page.setNextCursor(last == null
+                    ? new KeysetCursor(NOTES_SECTION, "", 0).encode()
+                    : new KeysetCursor(NOTES_SECTION, last.getTitle(), last.getId()).encode());
+        }
+        return page;
     }
 
     @Transactional
     public FolderDto createFolder(FolderCreationDto input) {
-        DbUser user = getCurrentUser();
+        Long userId = AuthenticatedUser.currentId();
         DbFolder folder = new DbFolder();
         folder.setName(input.getName());
-        folder.setUser(user);
+        folder.setUser(userRepository.getReferenceById(userId));
 
         if (input.getParentId() != null) {
             DbFolder parent = folderRepository.findById(input.getParentId())
                     .orElseThrow(() -> new GenericNotFoundException(input.getParentId(), "Folder"));
-            if (!parent.getUser().getId().equals(user.getId())) throw new GenericNotFoundException(input.getParentId(), "Folder");
+            if (!parent.getUser().getId().equals(userId)) throw new GenericNotFoundException(input.getParentId(), "Folder");
             folder.setParent(parent);
         }
-        return convertToDto(folderRepository.save(folder));
+        folder.setSyncVersion(treeVersionService.bump(userId));
+        DbFolder savedFolder = folderRepository.save(folder);
+        return convertToDto(savedFolder);
+    }
+
+    // Reparenting: the cycle check is a prefix comparison of two materialised paths, and the
+    // descendants follow with one bulk path update. Notes keep their folder_id, so the cost
+    // does not depend on how many notes the subtree holds.
+    @Transactional
+    public FolderHeaderDto moveFolder(Long id, FolderMoveDto input) {
+        Long userId = AuthenticatedUser.currentId();
+        DbFolder folder = folderRepository.findById(id)
+                .orElseThrow(() -> new GenericNotFoundException(id, "Folder"));
+        if (!folder.getUser().getId().equals(userId)) throw new GenericNotFoundException(id, "Folder");
+        // it would leave its deletion batch behind: it has to be restored first
+        if (folder.isDeleted()) throw new GenericBadRequestException("Cannot move a folder of the bin");
+
+        DbFolder target = null;
+        if (input.getParentId() != null) {
+            target = folderRepository.findById(input.getParentId())
+                    .orElseThrow(() -> new GenericNotFoundException(input.getParentId(), "Folder"));
+            if (!target.getUser().getId().equals(userId)) throw new GenericNotFoundException(input.getParentId(), "Folder");
+            if (target.isDeleted()) throw new GenericBadRequestException("Cannot move a folder into a folder of the bin");
+            if (folder.contains(target)) throw new GenericBadRequestException("Cannot move a folder into itself or one of its sub-folders");
+        }
+
+        Long currentParentId = folder.getParent() == null ? null : folder.getParent().getId();
+        if (!Objects.equals(currentParentId, input.getParentId())) {
+            folder.setSyncVersion(treeVersionService.bump(userId));
+            reparent(userId, folder, target);
+        }
+        return toHeaderDto(folderRepository.findHeaderById(id));
+    }
+
+    // saves the folder under its new parent, the descendants follow with one bulk path update
+    private void reparent(Long userId, DbFolder folder, DbFolder target) {
+        String oldPrefix = folder.getSubtreePrefix();
+        int oldDepth = folder.getDepth();
+        folder.setParent(target);
+        folderRepository.saveAndFlush(folder);
+        folderRepository.rewriteSubtreePaths(userId, oldPrefix, folder.getSubtreePrefix(), folder.getDepth() - oldDepth);
     }
 
     // --- RECYCLE BIN LOGIC ---
 
-    // 1. Soft Delete
+    // 1. Soft Delete: the folder, its sub-folders and all their notes, under one deletion batch
+    // (three statements, whatever the size of the subtree)
     @Transactional
     public void deleteFolder(Long id) {
-        DbUser user = getCurrentUser();
+        Long userId = AuthenticatedUser.currentId();
         DbFolder folder = folderRepository.findById(id)
                 .orElseThrow(() -> new GenericNotFoundException(id, "Folder"));
-        if (!folder.getUser().getId().equals(user.getId())) throw new GenericNotFoundException(id, "Folder");
+        if (!folder.getUser().getId().equals(userId)) throw new GenericNotFoundException(id, "Folder");
+        if (folder.isDeleted()) return;
 
+        String batch = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        long version = treeVersionService.bump(userId);
         folder.setDeleted(true);
-        folder.setDeletedAt(LocalDateTime.now()); // Set timestamp
-        folderRepository.save(folder);
+        folder.setDeletedAt(now); // Set timestamp
+        folder.setDeletionBatch(batch);
+        folder.setBinRoot(true);
+        folder.setSyncVersion(version);
+        folderRepository.saveAndFlush(folder);
+
+        String prefix = folder.getSubtreePrefix();
+        folderRepository.binSubtree(userId, prefix, batch, now, version);
+        noteRepository.binSubtree(userId, folder.getId(), prefix, batch, now, version);
     }
 
-    // 2. Get Deleted Folders
+    // 2. Get Deleted Folders: one page of the folders binned on their own (what went to the bin
+    // along with them is not listed, it comes back with their restore)
     @Transactional(readOnly = true)
-    public List<FolderDto> getDeletedFolders() {
-        return folderRepository.findByUserIdAndDeletedTrue(getCurrentUser().getId()).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public BinPageDto<BinFolderDto> getDeletedFolders(String cursor, int limit) {
+        Long userId = AuthenticatedUser.currentId();
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        BinCursor after = BinCursor.decode(cursor);
+
+        List<BinFolderView> rows = folderRepository.findBinPage(userId, after.deletedAt(), after.id(),
+                PageRequest.ofSize(size + 1));
+        BinPageDto<BinFolderDto> page = new BinPageDto<>();
+        page.setItems(rows.stream().limit(size).map(FolderService::toBinDto).collect(Collectors.toList()));
+        if (rows.size() > size) {
+            BinFolderView last = rows.get(size - 1);
+            page.setNextCursor(BinCursor.encode(last.getDeletedAt(), last.getId()));
+        }
+        return page;
     }
 
-    // 3. Restore Folder
+    // 3. Restore Folder: the folder and what was binned together with it below it.
+    // A sub-folder binned earlier on its own stays in the bin. If the parent is still in the bin,
+    // the folder comes back at the root level.
     @Transactional
     public void restoreFolder(Long id) {
-        DbUser user = getCurrentUser();
+        Long userId = AuthenticatedUser.currentId();
         DbFolder folder = folderRepository.findById(id)
                 .orElseThrow(() -> new GenericNotFoundException(id, "Folder"));
-        if (!folder.getUser().getId().equals(user.getId())) throw new GenericNotFoundException(id, "Folder");
+        if (!folder.getUser().getId().equals(userId)) throw new GenericNotFoundException(id, "Folder");
+
+        restore(userId, folder, treeVersionService.bump(userId), new BinOperationResultDto());
+    }
 
+    // restores a folder of the bin with its batch and adds what came back to the counts (bulk restore)
+    void restore(Long userId, DbFolder folder, long version, BinOperationResultDto restored) {
+        String batch = folder.getDeletionBatch();
         folder.setDeleted(false);
         folder.setDeletedAt(null); // Clear timestamp
-        folderRepository.save(folder);
+        folder.setDeletionBatch(null);
+        folder.setBinRoot(false);
+        folder.setSyncVersion(version);
+        if (folder.getParent() != null && folder.getParent().isDeleted()) {
+            reparent(userId, folder, null);
+        } else {
+            folderRepository.saveAndFlush(folder);
+        }
+        restored.setFolders(restored.getFolders() + 1);
+
+        // rows binned before deletion batches existed have none: the folder alone
+        if (batch == null) return;
+        String prefix = folder.getSubtreePrefix();
+        restored.setFolders(restored.getFolders() + folderRepository.restoreSubtree(userId, prefix, batch, version));
+        restored.setNotes(restored.getNotes() + noteRepository.restoreSubtree(userId, folder.getId(), prefix, batch, version));
+    }
+
+    // a folder restored in bulk while its parent stays in the bin comes back at the root level
+    void moveToRoot(Long userId, Long id) {
+        folderRepository.findById(id).ifPresent(folder -> reparent(userId, folder, null));
     }
 
     // 4. Hard Delete
     @Transactional
     public void hardDeleteFolder(Long id) {
-        DbUser user = getCurrentUser();
+        Long userId = AuthenticatedUser.currentId();
         DbFolder folder = folderRepository.findById(id)
                 .orElseThrow(() -> new GenericNotFoundException(id, "Folder"));
-        if (!folder.getUser().getId().equals(user.getId())) throw new GenericNotFoundException(id, "Folder");
+        if (!folder.getUser().getId().equals(userId)) throw new GenericNotFoundException(id, "Folder");
 
+        syncService.recordFolderRemoval(userId, folder, treeVersionService.bump(userId));
         folderRepository.delete(folder);
     }
 
     // --- Helpers ---
+    private FolderHeaderDto toHeaderDto(FolderChildView view) {
+        FolderHeaderDto dto = new FolderHeaderDto();
+        dto.setId(view.getId());
+        dto.setName(view.getName());
+        dto.setParentId(view.getParentId());
+        dto.setHasChildren(Boolean.TRUE.equals(view.getHasChildren()));
+        return dto;
+    }
+
     private FolderDto convertToDto(DbFolder entity) {
         FolderDto dto = new FolderDto();
         dto.setId(entity.getId());
@@ -128,13 +313,25 @@ public class FolderService {
         return dto;
     }
 
-    private NoteDto convertNoteToDto(DbNote entity) {
-        NoteDto dto = new NoteDto();
+    private static BinFolderDto toBinDto(BinFolderView view) {
+        BinFolderDto dto = new BinFolderDto();
+        dto.setId(view.getId());
+        dto.setName(view.getName());
+        dto.setParentId(view.getParentId());
+        dto.setDeletedAt(view.getDeletedAt());
+        return dto;
+    }
+
+    // outline only, the content stays on GET /api/notes/{id}
+    private NoteHeaderDto convertNoteToDto(DbNote entity) {
+        NoteHeaderDto dto = new NoteHeaderDto();
         dto.setId(entity.getId());
         dto.setTitle(entity.getTitle());
-        dto.setContent(entity.getContent());
-        dto.setCreatedAt(entity.getCreatedAt());
         dto.setUpdatedAt(entity.getUpdatedAt());
+        dto.setWordCount(entity.getWordCount());
+        dto.setLineCount(entity.getLineCount());
+        dto.setCharacterCount(entity.getCharacterCount());
+        dto.setSizeInBytes(entity.getSizeInBytes());
         if (entity.getFolder() != null) dto.setFolderId(entity.getFolder().getId());
         return dto;
     }
@@ -0,0 +1,83 @@
+package com.helha.backend.application.services;
+
+import com.helha.backend.application.dto.FolderDto;
+import com.helha.backend.application.dto.NoteHeaderDto;
+import com.helha.backend.domain.repositories.IFolderRepository;
+import com.helha.backend.domain.repositories.INoteRepository;
+import com.helha.backend.domain.repositories.projections.FolderNodeView;
+import com.helha.backend.domain.repositories.projections.NoteHeaderView;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the active folder tree of a user from two flat queries
+ * (all folders, then the outline of all notes) and links the nodes in memory.
+ * Note contents are never loaded here, they are served by GET /api/notes/{id}.
+ * The number of SQL statements does not depend on the depth or width of the tree.
+ */
+@Component
+public class FolderTreeBuilder {
+
+    private final IFolderRepository folderRepository;
+    private final INoteRepository noteRepository;
+
+    public FolderTreeBuilder(IFolderRepository folderRepository, INoteRepository noteRepository) {
+        this.folderRepository = folderRepository;
+        this.noteRepository = noteRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public List<FolderDto> buildTree(Long userId) {
+        List<FolderNodeView> nodes = folderRepository.findTreeNodesByUserId(userId);
+
+        // 1. One dto per active folder, indexed by id
+        Map<Long, FolderDto> byId = new HashMap<>(nodes.size() * 2);
+        for (FolderNodeView node : nodes) {
+            FolderDto dto = new FolderDto();
+            dto.setId(node.getId());
+            dto.setName(node.getName());
+            dto.setChildren(new ArrayList<>());
+            dto.setNotes(new ArrayList<>());
+            byId.put(node.getId(), dto);
+        }
+
+        // 2. Link children to their parent. A folder whose parent is in the bin is not reachable
+        // from a root, so it is dropped from the tree exactly like the old recursive walk did.
+        List<FolderDto> roots = new ArrayList<>();
+        for (FolderNodeView node : nodes) {
+            FolderDto dto = byId.get(node.getId());
+            if (node.getParentId() == null) {
+                roots.add(dto);
+            } else {
+                FolderDto parent = byId.get(node.getParentId());
+                if (parent != null) parent.getChildren().add(dto);
+            }
+        }
+
+        // 3. Attach the note outlines to their folder (root notes are not part of the folder tree)
+        for (NoteHeaderView note : noteRepository.findTreeHeadersByUserId(userId)) {
+            FolderDto folder = byId.get(note.getFolderId());
+            if (folder != null) folder.getNotes().add(toHeaderDto(note));
+        }
+
+        return roots;
+    }
+
+    public static NoteHeaderDto toHeaderDto(NoteHeaderView view) {
+        NoteHeaderDto dto = new NoteHeaderDto();
+        dto.setId(view.getId());
+        dto.setTitle(view.getTitle());
+        dto.setFolderId(view.getFolderId());
+        dto.setUpdatedAt(view.getUpdatedAt());
+        dto.setWordCount(view.getWordCount());
+        dto.setLineCount(view.getLineCount());
+        dto.setCharacterCount(view.getCharacterCount());
+        dto.setSizeInBytes(view.getSizeInBytes());
+        return dto;
+    }
+}
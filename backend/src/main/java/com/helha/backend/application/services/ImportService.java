@@ -0,0 +1,259 @@
+package com.helha.backend.application.services;
+
+import com.helha.backend.application.dto.NoteImportResultDto;
+import com.helha.backend.controllers.exceptions.GenericBadRequestException;
+import com.helha.backend.controllers.exceptions.GenericNotFoundException;
+import com.helha.backend.domain.models.DbFolder;
+import com.helha.backend.domain.models.DbNote;
+import com.helha.backend.domain.models.DbUser;
+import com.helha.backend.domain.repositories.IFolderRepository;
+import com.helha.backend.domain.repositories.INoteRepository;
+import com.helha.backend.domain.repositories.IUserRepository;
+import com.helha.backend.domain.service.MetadataScanner;
+import com.helha.backend.domain.service.NoteMetadata;
+import com.helha.backend.infrastructure.security.AuthenticatedUser;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Import of a vault: a ZIP of markdown files (or a single .md file) becomes folders and notes.
+ * The archive is read entry by entry from the upload stream; the notes are saved in batches and
+ * the persistence context is cleared after each one, so the memory does not grow with the archive.
+ * The whole import is one transaction with a single tree version: it shows up at once, or not at all.
+ * The version is bumped at the end, once everything is inserted: the row of the user stays unlocked
+ * while the archive is read, so the other writes of the user (autosave, moves) do not wait for it.
+ */
+@Service
+public class ImportService {
+
+    // column length of DbNote.title / DbFolder.name
+    private static final int MAX_NAME_LENGTH = 255;
+
+    private final INoteRepository noteRepository;
+    private final IFolderRepository folderRepository;
+    private final IUserRepository userRepository;
+    private final TreeVersionService treeVersionService;
+    private final EntityManager entityManager;
+    private final int batchSize;
+    private final long maxNoteSize;
+
+    public ImportService(INoteRepository noteRepository, IFolderRepository folderRepository,
+                         IUserRepository userRepository, TreeVersionService treeVersionService,
+                         EntityManager entityManager,
+                         @Value("${app.import.batch-size:500}") int batchSize,
+                         @Value("${app.import.max-note-size:5MB}") DataSize maxNoteSize) {
+        this.noteRepository = noteRepository;
+        this.folderRepository = folderRepository;
+        this.userRepository = userRepository;
+        this.treeVersionService = treeVersionService;
+        this.entityManager = entityManager;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxNoteSize = maxNoteSize.toBytes();
+    }
+
+    // fileName tells a single markdown file from an archive; folderId = where to import (null: root)
+    @Transactional
+    public NoteImportResultDto importNotes(InputStream input, String fileName, Long folderId) throws IOException {
+        long start = System.nanoTime();
+        Long userId = AuthenticatedUser.currentId();
+
+        DbFolder target = null;
+        if (folderId != null) {
+            target = folderRepository.findById(folderId)
+                    .filter(folder -> folder.getUser().getId().equals(userId))
+                    .orElseThrow(() -> new GenericNotFoundException(folderId, "Folder"));
+            if (target.isDeleted()) throw new GenericBadRequestException("Cannot import into a folder of the bin");
+        }
+
+        Batch batch = new Batch(userRepository.getReferenceById(userId), target);
+        if (fileName != null && isMarkdown(fileName)) {
+            batch.addNote(target, fileName, input);
+        } else {
+            readArchive(input, batch);
+        }
+        batch.flush();
+        batch.stamp(treeVersionService.bump(userId));
+
+        long nanos = System.nanoTime() - start;
+        NoteImportResultDto result = new NoteImportResultDto();
+        result.setFoldersCreated(batch.foldersCreated);
+        result.setNotesCreated(batch.notesCreated);
+        result.setSkippedEntries(batch.skipped);
+        result.setSizeInBytes(batch.bytes);
+        result.setDurationMs(nanos / 1_000_000);
+        result.setNotesPerSecond(nanos == 0 ? 0 : batch.notesCreated * 1e9 / nanos);
+        return result;
+    }
+
+    private void readArchive(InputStream input, Batch batch) throws IOException {
+        int entries = 0;
+        try (ZipInputStream zip = new ZipInputStream(input, StandardCharsets.UTF_8)) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries++;
+                List<String> segments = segments(entry.getName());
+                if (segments.isEmpty() || segments.stream().anyMatch(ImportService::isHidden)) {
+                    batch.skipped++;
+                } else if (entry.isDirectory()) {
+                    batch.folder(segments, segments.size());
+                } else if (isMarkdown(segments.get(segments.size() - 1))) {
+                    DbFolder folder = batch.folder(segments, segments.size() - 1);
+                    batch.addNote(folder, segments.get(segments.size() - 1), zip);
+                } else {
+                    batch.skipped++;
+                }
+            }
+        } catch (ZipException e) {
+            throw new GenericBadRequestException("Invalid ZIP archive: " + e.getMessage());
+        }
+        if (entries == 0) throw new GenericBadRequestException("The file is not a ZIP archive, or it is empty");
+    }
+
+    // "Vault/Sub/Note.md" -> [Vault, Sub, Note.md]; "." and ".." are dropped, nothing can climb above the target
+    private static List<String> segments(String entryName) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : entryName.replace('\\', '/').split("/")) {
+            if (!segment.isEmpty() && !segment.equals(".") && !segment.equals("..")) segments.add(segment);
+        }
+        return segments;
+    }
+
+    // ".obsidian/", ".DS_Store", "__MACOSX/" (resource forks of the macOS archiver)
+    private static boolean isHidden(String segment) {
+        return segment.startsWith(".") || segment.equals("__MACOSX");
+    }
+
+    private static boolean isMarkdown(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        return name.endsWith(".md") || name.endsWith(".markdown") || name.endsWith(".txt");
+    }
+
+    private static String title(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return truncate(dot > 0 ? fileName.substring(0, dot) : fileName);
+    }
+
+    private static String truncate(String name) {
+        return name.length() > MAX_NAME_LENGTH ? name.substring(0, MAX_NAME_LENGTH) : name;
+    }
+
+    // --- One import: folders created on the way, notes saved in batches ---
+
+    private final class Batch {
+        private final DbUser user;
+        private final DbFolder target;
+        // archive directory ("Vault/Sub") -> folder, so each directory is created once
+        private final Map<String, DbFolder> folders = new HashMap<>();
+        private final List<DbNote> pending = new ArrayList<>();
+        // rows inserted so far, stamped with the tree version at the end
+        private final List<Long> folderIds = new ArrayList<>();
+        private final List<Long> noteIds = new ArrayList<>();
+
+        int foldersCreated;
+        int notesCreated;
+        int skipped;
+        long bytes;
+
+        Batch(DbUser user, DbFolder target) {
+            this.user = user;
+            this.target = target;
+        }
+
+        // folder of the first `count` segments, created with its missing parents
+        DbFolder folder(List<String> segments, int count) {
+            DbFolder parent = target;
+            StringBuilder key = new StringBuilder();
+            for (int i = 0; i < count; i++) {
+                key.append('/').append(segments.get(i));
+                DbFolder folder = folders.get(key.toString());
+                if (folder == null) {
+                    folder = new DbFolder(truncate(segments.get(i)), parent);
+                    folder.setUser(user);
+                    // saved at once: its id is part of the path of its sub-folders
+                    folderRepository.save(folder);
+                    folderIds.add(folder.getId());
+                    folders.put(key.toString(), folder);
+                    foldersCreated++;
+                }
+                parent = folder;
+            }
+            return parent;
+        }
+
+        void addNote(DbFolder folder, String fileName, InputStream in) throws IOException {
+            byte[] data = readAtMost(in, maxNoteSize);
+            if (data == null) {
+                skipped++;
+                return;
+            }
+            String content = new String(data, StandardCharsets.UTF_8);
+            NoteMetadata metadata = MetadataScanner.scan(content);
+
+            DbNote note = new DbNote();
+            note.setTitle(title(fileName));
+            note.setContent(content);
+            note.setUser(user);
+            note.setFolder(folder);
+            note.setWordCount(metadata.wordCount());
+            note.setLineCount(metadata.lineCount());
+            note.setCharacterCount(metadata.characterCount());
+            note.setSizeInBytes(metadata.sizeInBytes());
+            pending.add(note);
+            notesCreated++;
+            bytes += data.length;
+
+            if (pending.size() >= batchSize) flush();
+        }
+
+        // inserts the pending notes, then detaches everything: the folders kept in the map are only
+        // used as foreign keys from now on
+        void flush() {
+            if (!pending.isEmpty()) {
+                noteRepository.saveAll(pending);
+                pending.forEach(note -> noteIds.add(note.getId()));
+                pending.clear();
+            }
+            entityManager.flush();
+            entityManager.clear();
+        }
+
+        // one update per batch of ids, right before the commit
+        void stamp(long version) {
+            for (int from = 0; from < folderIds.size(); from += batchSize) {
+                folderRepository.stampSyncVersion(folderIds.subList(from, Math.min(from + batchSize, folderIds.size())), version);
+            }
+            for (int from = 0; from < noteIds.size(); from += batchSize) {
+                noteRepository.stampSyncVersion(noteIds.subList(from, Math.min(from + batchSize, noteIds.size())), version);
+            }
+        }
+    }
+
+    // null when the entry is larger than the limit (the rest of the entry is skipped by the next getNextEntry)
+    private static byte[] readAtMost(InputStream in, long limit) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > limit) return null;
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
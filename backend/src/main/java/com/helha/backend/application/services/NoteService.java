@@ -1,59 +1,72 @@
 package com.helha.backend.application.services;
 
+import com.helha.backend.application.dto.BinNoteDto;
+import com.helha.backend.application.dto.BinPageDto;
+import com.helha.backend.application.dto.NoteContentPatchDto;
+import com.helha.backend.application.dto.NoteContentPatchResultDto;
 import com.helha.backend.application.dto.NoteCreationDto;
 import com.helha.backend.application.dto.NoteDto;
+import com.helha.backend.application.dto.NoteEditDto;
+import com.helha.backend.application.dto.NoteMoveDto;
 import com.helha.backend.application.dto.NoteUpdateDto;
+import com.helha.backend.application.utils.BinCursor;
+import com.helha.backend.controllers.exceptions.GenericBadRequestException;
+import com.helha.backend.controllers.exceptions.GenericConflictException;
 import com.helha.backend.controllers.exceptions.GenericNotFoundException;
 import com.helha.backend.domain.models.DbFolder;
 import com.helha.backend.domain.models.DbNote;
-import com.helha.backend.domain.models.DbUser;
 import com.helha.backend.domain.repositories.IFolderRepository;
 import com.helha.backend.domain.repositories.INoteRepository;
 import com.helha.backend.domain.repositories.IUserRepository;
-import com.helha.backend.domain.service.MetadataUtils;
+import com.helha.backend.domain.repositories.projections.BinNoteView;
+import com.helha.backend.domain.service.MetadataScanner;
+import com.helha.backend.domain.service.NoteContentEditor;
+import com.helha.backend.domain.service.NoteMetadata;
+import com.helha.backend.infrastructure.security.AuthenticatedUser;
 import org.modelmapper.ModelMapper;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class NoteService {
 
+    // page size limit of the bin
+    private static final int MAX_BIN_PAGE_SIZE = 500;
+
     private final INoteRepository noteRepository;
     private final IFolderRepository folderRepository;
     private final IUserRepository userRepository;
     private final ModelMapper modelMapper;
+    private final TreeVersionService treeVersionService;
+    private final SyncService syncService;
 
     public NoteService(INoteRepository noteRepository, IFolderRepository folderRepository,
-                       IUserRepository userRepository, ModelMapper modelMapper) {
+                       IUserRepository userRepository, ModelMapper modelMapper,
+                       TreeVersionService treeVersionService, SyncService syncService) {
         this.noteRepository = noteRepository;
         this.folderRepository = folderRepository;
         this.userRepository = userRepository;
         this.modelMapper = modelMapper;
+        this.treeVersionService = treeVersionService;
+        this.syncService = syncService;
     }
 
-
-    //Private helper to retrieve the user making the request
-    private DbUser getCurrentUser() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new GenericNotFoundException(0L, "User " + username));
-    }
-
-
     // retrieve a a note by it's ID with ownership verification
     @Transactional(readOnly = true)
     public NoteDto getNoteById(Long id) {
-        DbUser user = getCurrentUser();
+        Long userId = AuthenticatedUser.currentId();
         DbNote note = noteRepository.findById(id)
                 .orElseThrow(() -> new GenericNotFoundException(id, "Note"));
 
         // Security if it's not my note I'm not able to see it
-        if (!note.getUser().getId().equals(user.getId())) {
+        if (!note.getUser().getId().equals(userId)) {
             throw new GenericNotFoundException(id, "Note");
         }
 
@@ -64,18 +77,18 @@ public class NoteService {
     //Create a note bind to the user and it's folder
     @Transactional
     public NoteDto createNote(NoteCreationDto input) {
-        DbUser user = getCurrentUser();
+        Long userId = AuthenticatedUser.currentId();
         DbNote note = new DbNote();
         note.setTitle(input.getTitle());
         note.setContent("");
-        note.setUser(user);
+        note.setUser(userRepository.getReferenceById(userId));
 
         if (input.getFolderId() != null) {
             DbFolder folder = folderRepository.findById(input.getFolderId())
                     .orElseThrow(() -> new GenericNotFoundException(input.getFolderId(), "Folder"));
 
             // Vérification de sécurité : le dossier appartient bien à l'utilisateur
-            if (!folder.getUser().getId().equals(user.getId())) {
+            if (!folder.getUser().getId().equals(userId)) {
                 throw new GenericNotFoundException(input.getFolderId(), "Folder");
             }
             note.setFolder(folder);
@@ -89,6 +102,7 @@ public class NoteService {
         note.setCharacterCount(0);
         note.setSizeInBytes(0L);
 
+        note.setSyncVersion(treeVersionService.bump(userId));
         DbNote savedNote = noteRepository.save(note);
         return convertToDto(savedNote);
     }
@@ -96,12 +110,12 @@ public class NoteService {
     // update a note
     @Transactional
     public NoteDto updateNote(Long id, NoteUpdateDto input) {
-        DbUser user = getCurrentUser();
+        Long userId = AuthenticatedUser.currentId();
         DbNote note = noteRepository.findById(id)
                 .orElseThrow(() -> new GenericNotFoundException(id, "Note"));
 
         // Security to check ownership
-        if (!note.getUser().getId().equals(user.getId())) {
+        if (!note.getUser().getId().equals(userId)) {
             throw new GenericNotFoundException(id, "Note");
         }
 
@@ -112,19 +126,106 @@ public class NoteService {
         if (input.getContent() != null) {
             note.setContent(input.getContent());
 
-            //Métadata
-            String content = input.getContent();
-            int words = MetadataUtils.countWords(content);
-            note.setWordCount(words);
-            note.setLineCount(MetadataUtils.countLines(content));
-            note.setCharacterCount(MetadataUtils.countCharacters(content));
-            note.setSizeInBytes(MetadataUtils.calculateSizeInBytes(content));
+            //Métadata (one pass over the content)
+            NoteMetadata metadata = MetadataScanner.scan(input.getContent());
+            note.setWordCount(metadata.wordCount());
+            note.setLineCount(metadata.lineCount());
+            note.setCharacterCount(metadata.characterCount());
+            note.setSizeInBytes(metadata.sizeInBytes());
         }
 
+        note.setSyncVersion(treeVersionService.bump(userId));
         DbNote updatedNote = noteRepository.save(note);
         return convertToDto(updatedNote);
     }
 
+    // incremental update (autosave): applies the edits in order on the base version and updates
+    // the stats from the edited ranges only. The tree version is bumped first, like every other change:
+    // the lock on the user row serialises the writes of the user, so the version check and the write
+    // are atomic (a refused patch rolls the bump back).
+    @Transactional
+    public NoteContentPatchResultDto patchContent(Long id, NoteContentPatchDto input) {
+        Long userId = AuthenticatedUser.currentId();
+        long version = treeVersionService.bump(userId);
+        DbNote note = noteRepository.findById(id)
+                .orElseThrow(() -> new GenericNotFoundException(id, "Note"));
+
+        if (!note.getUser().getId().equals(userId)) {
+            throw new GenericNotFoundException(id, "Note");
+        }
+        if (input.getBaseVersion() == null || input.getEdits() == null) {
+            throw new GenericBadRequestException("baseVersion and edits are required");
+        }
+        if (note.getSyncVersion() != input.getBaseVersion()) {
+            throw new GenericConflictException("Note " + id + " is at version " + note.getSyncVersion()
+                    + ", the edits were made on version " + input.getBaseVersion());
+        }
+
+        NoteContentEditor editor = new NoteContentEditor(note.getContent(), new NoteMetadata(
+                note.getWordCount(), note.getLineCount(), note.getCharacterCount(), note.getSizeInBytes()));
+        try {
+            for (NoteEditDto edit : input.getEdits()) {
+                editor.apply(edit.getOffset(), edit.getDeleteLength(), edit.getText());
+            }
+        } catch (IllegalArgumentException e) {
+            throw new GenericBadRequestException(e.getMessage());
+        }
+
+        NoteMetadata metadata = editor.getMetadata();
+        note.setContent(editor.getContent());
+        note.setWordCount(metadata.wordCount());
+        note.setLineCount(metadata.lineCount());
+        note.setCharacterCount(metadata.characterCount());
+        note.setSizeInBytes(metadata.sizeInBytes());
+        note.setSyncVersion(version);
+        DbNote saved = noteRepository.save(note);
+
+        NoteContentPatchResultDto dto = new NoteContentPatchResultDto();
+        dto.setId(saved.getId());
+        dto.setVersion(saved.getSyncVersion());
+        dto.setWordCount(saved.getWordCount());
+        dto.setLineCount(saved.getLineCount());
+        dto.setCharacterCount(saved.getCharacterCount());
+        dto.setSizeInBytes(saved.getSizeInBytes());
+        dto.setUpdatedAt(saved.getUpdatedAt());
+        return dto;
+    }
+
+    // move a note to another folder (or to the root when folderId is null)
+    @Transactional
+    public NoteDto moveNote(Long id, NoteMoveDto input) {
+        Long userId = AuthenticatedUser.currentId();
+        DbNote note = noteRepository.findById(id)
+                .orElseThrow(() -> new GenericNotFoundException(id, "Note"));
+
+        if (!note.getUser().getId().equals(userId)) {
+            throw new GenericNotFoundException(id, "Note");
+        }
+        // it would leave its deletion batch behind: it has to be restored first
+        if (note.isDeleted()) {
+            throw new GenericBadRequestException("Cannot move a note of the bin");
+        }
+
+        DbFolder folder = null;
+        if (input.getFolderId() != null) {
+            folder = folderRepository.findById(input.getFolderId())
+                    .orElseThrow(() -> new GenericNotFoundException(input.getFolderId(), "Folder"));
+            if (!folder.getUser().getId().equals(userId)) {
+                throw new GenericNotFoundException(input.getFolderId(), "Folder");
+            }
+            if (folder.isDeleted()) {
+                throw new GenericBadRequestException("Cannot move a note into a folder of the bin");
+            }
+        }
+
+        Long currentFolderId = note.getFolder() == null ? null : note.getFolder().getId();
+        if (Objects.equals(currentFolderId, input.getFolderId())) return convertToDto(note);
+
+        note.setFolder(folder);
+        note.setSyncVersion(treeVersionService.bump(userId));
+        return convertToDto(noteRepository.save(note));
+    }
+
 //    // Delete a note with ownership verification
 //    @Transactional
 //    public void deleteNote(Long id) {
@@ -164,6 +265,7 @@ public class NoteService {
         dto.setLineCount(entity.getLineCount());
         dto.setCharacterCount(entity.getCharacterCount());
         dto.setSizeInBytes(entity.getSizeInBytes());
+        dto.setVersion(entity.getSyncVersion());
 
         if (entity.getFolder() != null) {
             dto.setFolderId(entity.getFolder().getId());
@@ -173,60 +275,91 @@ public class NoteService {
     // 1. Soft delete: Mark as deleted and set the timestamp
     @Transactional
     public void deleteNote(Long id) {
-        DbUser user = getCurrentUser();
+        Long userId = AuthenticatedUser.currentId();
         DbNote note = noteRepository.findById(id)
                 .orElseThrow(() -> new GenericNotFoundException(id, "Note"));
 
-        if (!note.getUser().getId().equals(user.getId())) {
+        if (!note.getUser().getId().equals(userId)) {
             throw new GenericNotFoundException(id, "Note");
         }
+        if (note.isDeleted()) return;
 
         note.setDeleted(true);
         note.setDeletedAt(LocalDateTime.now()); // <--- Set timestamp
+        note.setDeletionBatch(UUID.randomUUID().toString()); // a batch of its own: shown as such in the bin
+        note.setBinRoot(true);
+        note.setSyncVersion(treeVersionService.bump(userId));
         noteRepository.save(note);
     }
 
     // 2. Restore: Unmark as deleted and clear the timestamp
+    // (a note whose folder is still in the bin comes back at the root level)
     @Transactional
     public void restoreNote(Long id) {
-        DbUser user = getCurrentUser();
+        Long userId = AuthenticatedUser.currentId();
         DbNote note = noteRepository.findById(id)
                 .orElseThrow(() -> new GenericNotFoundException(id, "Note"));
 
-        if (!note.getUser().getId().equals(user.getId())) throw new GenericNotFoundException(id, "Note");
+        if (!note.getUser().getId().equals(userId)) throw new GenericNotFoundException(id, "Note");
 
         note.setDeleted(false);
         note.setDeletedAt(null); // <--- Clear timestamp
+        note.setDeletionBatch(null);
+        note.setBinRoot(false);
+        if (note.getFolder() != null && note.getFolder().isDeleted()) note.setFolder(null);
+        note.setSyncVersion(treeVersionService.bump(userId));
         noteRepository.save(note);
     }
 
     // 3. NEW: Permanent Delete
     @Transactional
     public void hardDeleteNote(Long id) {
-        DbUser user = getCurrentUser();
+        Long userId = AuthenticatedUser.currentId();
         DbNote note = noteRepository.findById(id)
                 .orElseThrow(() -> new GenericNotFoundException(id, "Note"));
 
-        if (!note.getUser().getId().equals(user.getId())) throw new GenericNotFoundException(id, "Note");
+        if (!note.getUser().getId().equals(userId)) throw new GenericNotFoundException(id, "Note");
 
+        syncService.recordNoteRemoval(userId, id, treeVersionService.bump(userId));
         noteRepository.delete(note); // Actual DB deletion
     }
 
     // 4. Update getRootNotes
     @Transactional(readOnly = true)
     public List<NoteDto> getRootNotes() {
-        DbUser user = getCurrentUser();
+        Long userId = AuthenticatedUser.currentId();
         // Use the new repository method
-        return noteRepository.findByUserIdAndFolderIsNullAndDeletedFalse(user.getId()).stream()
+        return noteRepository.findByUserIdAndFolderIsNullAndDeletedFalse(userId).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
-    // 5. NEW: Get all notes in the bin
+    // 5. NEW: Get one page of the notes binned on their own (those of a binned folder come back with it),
+    // without their content
     @Transactional(readOnly = true)
-    public List<NoteDto> getDeletedNotes() {
-        return noteRepository.findByUserIdAndDeletedTrue(getCurrentUser().getId()).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public BinPageDto<BinNoteDto> getDeletedNotes(String cursor, int limit) {
+        Long userId = AuthenticatedUser.currentId();
+        int size = Math.max(1, Math.min(limit, MAX_BIN_PAGE_SIZE));
+        BinCursor after = BinCursor.decode(cursor);
+
+        List<BinNoteView> rows = noteRepository.findBinPage(userId, after.deletedAt(), after.id(),
+                PageRequest.ofSize(size + 1));
+        BinPageDto<BinNoteDto> page = new BinPageDto<>();
+        page.setItems(rows.stream().limit(size).map(NoteService::toBinDto).collect(Collectors.toList()));
+        if (rows.size() > size) {
+            BinNoteView last = rows.get(size - 1);
+            page.setNextCursor(BinCursor.encode(last.getDeletedAt(), last.getId()));
+        }
+        return page;
+    }
+
+    private static BinNoteDto toBinDto(BinNoteView view) {
+        BinNoteDto dto = new BinNoteDto();
+        dto.setId(view.getId());
+        dto.setTitle(view.getTitle());
+        dto.setFolderId(view.getFolderId());
+        dto.setDeletedAt(view.getDeletedAt());
+        dto.setSizeInBytes(view.getSizeInBytes());
+        return dto;
     }
-}
\ No newline at end of file
+}
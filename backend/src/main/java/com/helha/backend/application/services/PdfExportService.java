@@ -0,0 +1,106 @@
+package com.helha.backend.application.services;
+
+import com.helha.backend.controllers.exceptions.GenericNotFoundException;
+import com.helha.backend.domain.models.DbFolder;
+import com.helha.backend.domain.repositories.IFolderRepository;
+import com.helha.backend.domain.repositories.INoteRepository;
+import com.helha.backend.domain.repositories.projections.FolderNodeView;
+import com.helha.backend.domain.repositories.projections.NoteExportView;
+import com.helha.backend.infrastructure.pdf.MarkdownPdfWriter;
+import com.helha.backend.infrastructure.pdf.PdfStyles;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PDF export of a note, or of a folder with everything below it as one document
+ * (a section and a bookmark per folder and per note).
+ * Like the ZIP export, the document is written to the response while the notes are read
+ * in small keyset batches: neither the notes nor the finished pages stay in memory.
+ */
+@Service
+public class PdfExportService {
+
+    // notes (with their content) held in memory at once
+    static final int BATCH_SIZE = 50;
+
+    // what a folder export needs, resolved on the request thread
+    public record FolderExport(Long userId, Long folderId, String name, String subtreePrefix) {
+    }
+
+    private final IFolderRepository folderRepository;
+    private final INoteRepository noteRepository;
+    private final ExportService exportService;
+    private final PdfStyles styles;
+
+    public PdfExportService(IFolderRepository folderRepository, INoteRepository noteRepository,
+                            ExportService exportService, PdfStyles styles) {
+        this.folderRepository = folderRepository;
+        this.noteRepository = noteRepository;
+        this.exportService = exportService;
+        this.styles = styles;
+    }
+
+    public NoteExportView getNoteForExport(Long noteId) {
+        Long userId = exportService.getCurrentUserId();
+        return noteRepository.findOneForExport(noteId, userId)
+                .orElseThrow(() -> new GenericNotFoundException(noteId, "Note"));
+    }
+
+    public FolderExport getFolderForExport(Long folderId) {
+        Long userId = exportService.getCurrentUserId();
+        DbFolder folder = folderRepository.findById(folderId)
+                .filter(f -> f.getUser().getId().equals(userId))
+                .orElseThrow(() -> new GenericNotFoundException(folderId, "Folder"));
+        return new FolderExport(userId, folder.getId(), folder.getName(), folder.getSubtreePrefix());
+    }
+
+    public void writeNotePdf(NoteExportView note, OutputStream out) {
+        try (MarkdownPdfWriter pdf = new MarkdownPdfWriter(out, styles, note.getTitle())) {
+            pdf.beginSection(null, note.getTitle(), 1, false);
+            pdf.writeMarkdown(note.getContent());
+        }
+    }
+
+    // not transactional on purpose: no connection is held while the client downloads
+    public void writeFolderPdf(FolderExport folder, OutputStream out) {
+        // folder outline only (no content), children sorted by name
+        Map<Long, List<FolderNodeView>> children = new HashMap<>();
+        for (FolderNodeView node : folderRepository.findSubtreeNodes(folder.userId(), folder.subtreePrefix())) {
+            children.computeIfAbsent(node.getParentId(), key -> new ArrayList<>()).add(node);
+        }
+
+        try (MarkdownPdfWriter pdf = new MarkdownPdfWriter(out, styles, folder.name())) {
+            writeFolder(pdf, null, folder.folderId(), folder.name(), 1, children);
+        }
+    }
+
+    private void writeFolder(MarkdownPdfWriter pdf, MarkdownPdfWriter.Section parent, Long folderId, String name,
+                             int depth, Map<Long, List<FolderNodeView>> children) {
+        // the first section opens the document, every other folder starts on a new page
+        MarkdownPdfWriter.Section section = pdf.beginSection(parent, name, Math.min(depth, 3), parent != null);
+
+        long afterId = 0;
+        boolean first = true;
+        List<NoteExportView> batch;
+        do {
+            batch = noteRepository.findNotesOfFolderForExport(folderId, afterId, PageRequest.ofSize(BATCH_SIZE));
+            for (NoteExportView note : batch) {
+                // the first note shares the page of its folder title
+                pdf.beginSection(section, note.getTitle(), Math.min(depth + 1, 4), !first);
+                pdf.writeMarkdown(note.getContent());
+                afterId = note.getId();
+                first = false;
+            }
+        } while (batch.size() == BATCH_SIZE);
+
+        for (FolderNodeView child : children.getOrDefault(folderId, List.of())) {
+            writeFolder(pdf, section, child.getId(), child.getName(), depth + 1, children);
+        }
+    }
+}
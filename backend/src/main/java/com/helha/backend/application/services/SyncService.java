@@ -0,0 +1,166 @@
+package com.helha.backend.application.services;
+
+import com.helha.backend.application.dto.FolderSyncDto;
+import com.helha.backend.application.dto.NoteSyncDto;
+import com.helha.backend.application.dto.SyncDto;
+import com.helha.backend.application.dto.TombstoneDto;
+import com.helha.backend.domain.models.DbFolder;
+import com.helha.backend.domain.models.DbTombstone;
+import com.helha.backend.domain.repositories.IFolderRepository;
+import com.helha.backend.domain.repositories.INoteRepository;
+import com.helha.backend.domain.repositories.ITombstoneRepository;
+import com.helha.backend.domain.repositories.IUserRepository;
+import com.helha.backend.domain.repositories.projections.FolderSyncView;
+import com.helha.backend.domain.repositories.projections.NoteSyncView;
+import com.helha.backend.domain.repositories.projections.UserSyncView;
+import com.helha.backend.infrastructure.security.AuthenticatedUser;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Delta sync: every note/folder row carries the tree version of its last change,
+ * and permanent deletions leave a tombstone, so a client only downloads what changed
+ * since the last version it has seen.
+ * Tombstones are kept for a retention window (pruned by the nightly cleanup); the sync horizon of the
+ * user records the last version pruned, and a client that synced before it gets a full snapshot.
+ */
+@Service
+public class SyncService {
+
+    private final INoteRepository noteRepository;
+    private final IFolderRepository folderRepository;
+    private final ITombstoneRepository tombstoneRepository;
+    private final IUserRepository userRepository;
+
+    public SyncService(INoteRepository noteRepository, IFolderRepository folderRepository,
+                       ITombstoneRepository tombstoneRepository, IUserRepository userRepository) {
+        this.noteRepository = noteRepository;
+        this.folderRepository = folderRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.userRepository = userRepository;
+    }
+
+    // changes since a version, or the full snapshot when "since" is null
+    // (read-only transaction: the version and the rows come from the same snapshot)
+    @Transactional(readOnly = true)
+    public SyncDto getChangesSince(Long since) {
+        Long userId = AuthenticatedUser.currentId();
+        UserSyncView state = userRepository.findSyncStateById(userId);
+        long version = state.getTreeVersion();
+        SyncDto dto = new SyncDto();
+        dto.setVersion(version);
+
+        // a version the server never handed out (database reset, ...), or older than the tombstones
+        // still kept (deletions since then are unknown): send everything again
+        if (since != null && (since > version || since < state.getSyncHorizon())) {
+            dto.setFullResync(true);
+            since = null;
+        }
+        long from = since == null ? -1 : since;
+
+        dto.setFolders(folderRepository.findChangedSince(userId, from).stream()
+                .map(this::toFolderDto)
+                .collect(Collectors.toList()));
+        dto.setNotes(noteRepository.findChangedSince(userId, from).stream()
+                .map(this::toNoteDto)
+                .collect(Collectors.toList()));
+        // nothing to remove from a full snapshot
+        dto.setRemoved(since == null ? List.of() :
+                tombstoneRepository.findByUserIdAndSyncVersionGreaterThanOrderBySyncVersion(userId, from).stream()
+                        .map(this::toTombstoneDto)
+                        .collect(Collectors.toList()));
+        return dto;
+    }
+
+    // --- Tombstones (called inside the transaction that deletes the rows) ---
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordNoteRemoval(Long userId, Long noteId, long version) {
+        tombstoneRepository.save(new DbTombstone(userId, DbTombstone.Kind.NOTE, noteId, version));
+    }
+
+    // the folder and everything the delete cascades to (sub-folders and their notes),
+    // selected by materialised path instead of walking the lazy collections
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordFolderRemoval(Long userId, DbFolder folder, long version) {
+        String prefix = folder.getSubtreePrefix();
+        List<DbTombstone> tombstones = new ArrayList<>();
+        tombstones.add(new DbTombstone(userId, DbTombstone.Kind.FOLDER, folder.getId(), version));
+        for (Long folderId : folderRepository.findSubtreeIds(userId, prefix)) {
+            tombstones.add(new DbTombstone(userId, DbTombstone.Kind.FOLDER, folderId, version));
+        }
+        for (Long noteId : noteRepository.findIdsInSubtree(userId, folder.getId(), prefix)) {
+            tombstones.add(new DbTombstone(userId, DbTombstone.Kind.NOTE, noteId, version));
+        }
+        tombstoneRepository.saveAll(tombstones);
+    }
+
+    // rows deleted in bulk without being loaded (bin cleanup)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRemovals(Long userId, DbTombstone.Kind kind, List<Long> ids, long version) {
+        List<DbTombstone> tombstones = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            tombstones.add(new DbTombstone(userId, kind, id, version));
+        }
+        tombstoneRepository.saveAll(tombstones);
+    }
+
+    // --- Retention (nightly cleanup, inside its chunk transactions) ---
+
+    // moves the horizon of the users of the shard past their tombstones deleted before the threshold
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void raiseSyncHorizons(LocalDateTime threshold, int shard, int shards) {
+        userRepository.raiseSyncHorizon(threshold, shard, shards);
+    }
+
+    // one chunk of those tombstones; returns how many were deleted
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int pruneTombstones(LocalDateTime threshold, int shard, int shards, Pageable chunk) {
+        List<Long> ids = tombstoneRepository.findExpiredIds(threshold, shard, shards, chunk);
+        if (!ids.isEmpty()) tombstoneRepository.deleteAllByIdInBatch(ids);
+        return ids.size();
+    }
+
+    // --- Mapping Helpers ---
+    private FolderSyncDto toFolderDto(FolderSyncView view) {
+        FolderSyncDto dto = new FolderSyncDto();
+        dto.setId(view.getId());
+        dto.setName(view.getName());
+        dto.setParentId(view.getParentId());
+        dto.setDeleted(view.isDeleted());
+        dto.setDeletedAt(view.getDeletedAt());
+        dto.setVersion(view.getSyncVersion());
+        return dto;
+    }
+
+    private NoteSyncDto toNoteDto(NoteSyncView view) {
+        NoteSyncDto dto = new NoteSyncDto();
+        dto.setId(view.getId());
+        dto.setTitle(view.getTitle());
+        dto.setFolderId(view.getFolderId());
+        dto.setUpdatedAt(view.getUpdatedAt());
+        dto.setWordCount(view.getWordCount());
+        dto.setLineCount(view.getLineCount());
+        dto.setCharacterCount(view.getCharacterCount());
+        dto.setSizeInBytes(view.getSizeInBytes());
+        dto.setDeleted(view.isDeleted());
+        dto.setDeletedAt(view.getDeletedAt());
+        dto.setVersion(view.getSyncVersion());
+        return dto;
+    }
+
+    private TombstoneDto toTombstoneDto(DbTombstone tombstone) {
+        TombstoneDto dto = new TombstoneDto();
+        dto.setKind(tombstone.getKind().name());
+        dto.setId(tombstone.getEntityId());
+        dto.setVersion(tombstone.getSyncVersion());
+        return dto;
+    }
+}
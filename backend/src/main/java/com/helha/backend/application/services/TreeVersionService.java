@@ -0,0 +1,58 @@
+package com.helha.backend.application.services;
+
+import com.helha.backend.controllers.exceptions.GenericNotFoundException;
+import com.helha.backend.domain.repositories.IUserRepository;
+import com.helha.backend.domain.repositories.projections.UserVersionView;
+import com.helha.backend.infrastructure.cache.FolderTreeCache;
+import com.helha.backend.infrastructure.security.AuthenticatedUser;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Monotonic per-user version of the notes and folders.
+ * Every mutation bumps it inside its own transaction, and the ETags of the tree and of the notes
+ * are derived from it, so a conditional GET is answered with one indexed lookup.
+ */
+@Service
+public class TreeVersionService {
+
+    private final IUserRepository userRepository;
+    private final FolderTreeCache folderTreeCache;
+
+    public TreeVersionService(IUserRepository userRepository, FolderTreeCache folderTreeCache) {
+        this.userRepository = userRepository;
+        this.folderTreeCache = folderTreeCache;
+    }
+
+    // called by every note/folder mutation, returns the new version of the user
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long bump(Long userId) {
+        userRepository.incrementTreeVersion(userId);
+        long version = userRepository.findTreeVersionById(userId);
+        folderTreeCache.invalidate(userId, version - 1);
+        return version;
+    }
+
+    // strong ETag of GET /api/folders/tree for the current user
+    @Transactional(readOnly = true)
+    public String treeETag() {
+        UserVersionView user = currentUserVersion();
+        return "\"tree-" + user.getId() + "-" + user.getTreeVersion() + "\"";
+    }
+
+    // strong ETag of GET /api/notes/{id} for the current user
+    @Transactional(readOnly = true)
+    public String noteETag(Long noteId) {
+        UserVersionView user = currentUserVersion();
+        return "\"note-" + noteId + "-" + user.getId() + "-" + user.getTreeVersion() + "\"";
+    }
+
+    // id and current tree version of the authenticated user, in one indexed lookup
+    @Transactional(readOnly = true)
+    public UserVersionView currentUserVersion() {
+        Long userId = AuthenticatedUser.currentId();
+        return userRepository.findVersionById(userId)
+                .orElseThrow(() -> new GenericNotFoundException(userId, "User"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.helha.backend.application.utils;
+
+import com.helha.backend.controllers.exceptions.GenericBadRequestException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Keyset of the bin listings: most recently deleted first, on (deletedAt, id) descending,
+ * carried by a {@link KeysetCursor} whose key is the deletion date.
+ */
+public final class BinCursor {
+
+    private static final String SECTION = "B";
+    // later than any deletion: the first page
+    private static final LocalDateTime FIRST_PAGE = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final LocalDateTime deletedAt;
+    private final long id;
+
+    private BinCursor(LocalDateTime deletedAt, long id) {
+        this.deletedAt = deletedAt;
+        this.id = id;
+    }
+
+    // null or blank -> first page
+    public static BinCursor decode(String cursor) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        if (after == null) return new BinCursor(FIRST_PAGE, Long.MAX_VALUE);
+        if (!SECTION.equals(after.section())) throw new GenericBadRequestException("Invalid pagination cursor");
+        try {
+            return new BinCursor(LocalDateTime.parse(after.key()), after.id());
+        } catch (DateTimeParseException e) {
+            throw new GenericBadRequestException("Invalid pagination cursor");
+        }
+    }
+
+    public static String encode(LocalDateTime deletedAt, long id) {
+        return new KeysetCursor(SECTION, deletedAt.toString(), id).encode();
+    }
+
+    public LocalDateTime deletedAt() {
+        return deletedAt;
+    }
+
+    public long id() {
+        return id;
+    }
+}
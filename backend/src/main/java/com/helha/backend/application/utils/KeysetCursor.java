@@ -0,0 +1,36 @@
+package com.helha.backend.application.utils;
+
+import com.helha.backend.controllers.exceptions.GenericBadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor of a keyset pagination: the sort key and the id of the last item sent,
+ * plus a "section" for listings that chain several sorted sequences (folders, then notes).
+ * Sent to the client as url-safe base64.
+ */
+public record KeysetCursor(String section, String key, long id) {
+
+    private static final char SEPARATOR = '\u0000';
+
+    public String encode() {
+        String raw = section + SEPARATOR + key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // null or blank -> null (first page)
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int first = raw.indexOf(SEPARATOR);
+            int last = raw.lastIndexOf(SEPARATOR);
+            if (first < 0 || first == last) throw new IllegalArgumentException();
+            return new KeysetCursor(raw.substring(0, first), raw.substring(first + 1, last),
+                    Long.parseLong(raw.substring(last + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new GenericBadRequestException("Invalid pagination cursor");
+        }
+    }
+}
@@ -1,32 +1,37 @@
 package com.helha.backend.controllers;
 
-import com.helha.backend.application.dto.FolderDto;
-import com.helha.backend.application.dto.NoteDto;
+import com.helha.backend.application.dto.BinFolderDto;
+import com.helha.backend.application.dto.BinNoteDto;
+import com.helha.backend.application.dto.BinOperationResultDto;
+import com.helha.backend.application.dto.BinPageDto;
+import com.helha.backend.application.dto.BinSelectionDto;
+import com.helha.backend.application.services.BinService;
 import com.helha.backend.application.services.FolderService;
 import com.helha.backend.application.services.NoteService;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/corbeille")
 public class CorbeilleController {
 
     private final NoteService noteService;
     private final FolderService folderService; // Injection ajoutée
+    private final BinService binService;
 
-    public CorbeilleController(NoteService noteService, FolderService folderService) {
+    public CorbeilleController(NoteService noteService, FolderService folderService, BinService binService) {
         this.noteService = noteService;
         this.folderService = folderService;
+        this.binService = binService;
     }
 
     // --- NOTES ---
 
-    // GET /api/corbeille (ou /api/corbeille/notes si vous préférez séparer)
+    // GET /api/corbeille?cursor=&limit= : notes supprimées, les plus récentes d'abord, sans leur contenu
     @GetMapping
-    public List<NoteDto> getBinNotes() {
-        return noteService.getDeletedNotes();
+    public BinPageDto<BinNoteDto> getBinNotes(@RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "100") int limit) {
+        return noteService.getDeletedNotes(cursor, limit);
     }
 
     @PostMapping("/notes/{id}/restore")
@@ -44,10 +49,11 @@ public class CorbeilleController {
     // --- DOSSIERS (NOUVEAU) ---
 
     // 1. Voir les dossiers supprimés
-    // GET /api/corbeille/folders
+    // GET /api/corbeille/folders?cursor=&limit=
     @GetMapping("/folders")
-    public List<FolderDto> getBinFolders() {
-        return folderService.getDeletedFolders();
+    public BinPageDto<BinFolderDto> getBinFolders(@RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "100") int limit) {
+        return folderService.getDeletedFolders(cursor, limit);
     }
 
     // 2. Restaurer un dossier
@@ -65,4 +71,27 @@ public class CorbeilleController {
     public void permanentDeleteFolder(@PathVariable Long id) {
         folderService.hardDeleteFolder(id);
     }
-}
\ No newline at end of file
+
+    // --- PAR LOTS ---
+
+    // Restaurer une sélection de notes et de dossiers
+    // POST /api/corbeille/restore { "noteIds": [...], "folderIds": [...] }
+    @PostMapping("/restore")
+    public BinOperationResultDto restoreSelection(@RequestBody BinSelectionDto selection) {
+        return binService.restore(selection);
+    }
+
+    // Supprimer définitivement une sélection (les dossiers avec tout leur contenu)
+    // POST /api/corbeille/purge { "noteIds": [...], "folderIds": [...] }
+    @PostMapping("/purge")
+    public BinOperationResultDto purgeSelection(@RequestBody BinSelectionDto selection) {
+        return binService.delete(selection);
+    }
+
+    // Vider la corbeille
+    // DELETE /api/corbeille
+    @DeleteMapping
+    public BinOperationResultDto emptyBin() {
+        return binService.empty();
+    }
+}
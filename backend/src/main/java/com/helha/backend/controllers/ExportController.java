@@ -0,0 +1,44 @@
+package com.helha.backend.controllers;
+
+import com.helha.backend.application.dto.ExportJobDto;
+import com.helha.backend.application.services.ExportJobService;
+import com.helha.backend.infrastructure.export.ExportJob;
+import com.helha.backend.infrastructure.export.RangeFileSender;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/exports")
+public class ExportController {
+
+    private final ExportJobService exportJobService;
+
+    public ExportController(ExportJobService exportJobService) {
+        this.exportJobService = exportJobService;
+    }
+
+    // Start a ZIP export in the background (or get the one built from the current tree)
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ExportJobDto start() {
+        return exportJobService.startExport();
+    }
+
+    // Progress of an export
+    @GetMapping("/{id}")
+    public ExportJobDto status(@PathVariable String id) {
+        return exportJobService.getJob(id);
+    }
+
+    // Download the finished archive, resumable with a Range header
+    @GetMapping("/{id}/download")
+    public void download(@PathVariable String id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ExportJob job = exportJobService.getDownloadableJob(id);
+        RangeFileSender.send(request, response, job.getFile(), "application/zip",
+                "mes_notes_hantees.zip", "\"export-" + job.getId() + "\"");
+    }
+}
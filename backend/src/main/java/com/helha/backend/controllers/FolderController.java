@@ -1,32 +1,73 @@
 package com.helha.backend.controllers;
 
+import com.helha.backend.application.dto.FolderChildrenDto;
 import com.helha.backend.application.dto.FolderCreationDto;
 import com.helha.backend.application.dto.FolderDto;
+import com.helha.backend.application.dto.FolderHeaderDto;
+import com.helha.backend.application.dto.FolderMoveDto;
 import com.helha.backend.application.services.FolderService;
+import com.helha.backend.application.services.PdfExportService;
+import com.helha.backend.application.services.TreeVersionService;
 import com.helha.backend.controllers.exceptions.GenericNotFoundException;
 import com.helha.backend.domain.repositories.IFolderRepository; // Import manquant
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/folders")
 public class FolderController {
 
+    // the browser keeps the tree but must revalidate it (If-None-Match) on each request
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final FolderService folderService;
     private final IFolderRepository folderRepository;
+    private final TreeVersionService treeVersionService;
+    private final PdfExportService pdfExportService;
 
 
-    public FolderController(FolderService folderService, IFolderRepository folderRepository) {
+    public FolderController(FolderService folderService, IFolderRepository folderRepository,
+                            TreeVersionService treeVersionService, PdfExportService pdfExportService) {
         this.folderService = folderService;
         this.folderRepository = folderRepository;
+        this.treeVersionService = treeVersionService;
+        this.pdfExportService = pdfExportService;
     }
 
     // GET /api/folders/tree
+    // answers 304 from the user's tree version alone when the client already has this tree
     @GetMapping("/tree")
-    public List<FolderDto> getTree() {
-        return folderService.getFolderTree();
+    public ResponseEntity<List<FolderDto>> getTree(WebRequest request) {
+        String etag = treeVersionService.treeETag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(folderService.getFolderTree());
+    }
+
+    // GET /api/folders/children?cursor=&limit= : first level of the tree (root folders and root notes)
+    @GetMapping("/children")
+    public FolderChildrenDto getRootChildren(@RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "100") int limit) {
+        return folderService.getChildren(null, cursor, limit);
+    }
+
+    // GET /api/folders/{id}/children?cursor=&limit= : direct sub-folders and notes of a folder
+    @GetMapping("/{id}/children")
+    public FolderChildrenDto getChildren(@PathVariable Long id,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "100") int limit) {
+        return folderService.getChildren(id, cursor, limit);
     }
 
     // POST /api/folders
@@ -40,6 +81,26 @@ public class FolderController {
         return folderService.createFolder(input);
     }
 
+    // PATCH /api/folders/{id}/move : {"parentId": 12} or {"parentId": null} for the root
+    @PatchMapping("/{id}/move")
+    public FolderHeaderDto move(@PathVariable Long id, @RequestBody FolderMoveDto input) {
+        return folderService.moveFolder(id, input);
+    }
+
+    // GET /api/folders/{id}/export/pdf : the folder and everything below it, one section per note
+    // the document is streamed to the client while it is built
+    @GetMapping("/{id}/export/pdf")
+    public ResponseEntity<StreamingResponseBody> exportPdf(@PathVariable Long id) {
+        PdfExportService.FolderExport folder = pdfExportService.getFolderForExport(id);
+        StreamingResponseBody body = out -> pdfExportService.writeFolderPdf(folder, out);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(folder.name() + ".pdf", StandardCharsets.UTF_8).build().toString())
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(body);
+    }
+
     // DELETE /api/folders/{id}
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
@@ -1,17 +1,31 @@
 package com.helha.backend.controllers;
 
+import com.helha.backend.application.dto.NoteContentPatchDto;
+import com.helha.backend.application.dto.NoteContentPatchResultDto;
 import com.helha.backend.application.dto.NoteCreationDto;
 import com.helha.backend.application.dto.NoteDto;
+import com.helha.backend.application.dto.NoteImportResultDto;
+import com.helha.backend.application.dto.NoteMoveDto;
 import com.helha.backend.application.dto.NoteUpdateDto;
 import com.helha.backend.application.services.ExportService;
+import com.helha.backend.application.services.ImportService;
 import com.helha.backend.application.services.NoteService;
+import com.helha.backend.application.services.PdfExportService;
+import com.helha.backend.application.services.TreeVersionService;
+import com.helha.backend.domain.repositories.projections.NoteExportView;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 @RestController
 @RequestMapping("/api/notes")
@@ -19,17 +33,30 @@ public class NoteController {
 
     private final NoteService noteService;
     private final ExportService exportService;
+    private final TreeVersionService treeVersionService;
+    private final PdfExportService pdfExportService;
+    private final ImportService importService;
 
     // Constructor injection for required services
-    public NoteController(NoteService noteService, ExportService exportService) {
+    public NoteController(NoteService noteService, ExportService exportService,
+                          TreeVersionService treeVersionService, PdfExportService pdfExportService,
+                          ImportService importService) {
         this.noteService = noteService;
         this.exportService = exportService;
+        this.treeVersionService = treeVersionService;
+        this.pdfExportService = pdfExportService;
+        this.importService = importService;
     }
 
     // Retrieve a single note by its ID
+    // answers 304 without loading the note when the client already has this version
     @GetMapping("/{id}")
-    public NoteDto getOne(@PathVariable Long id) {
-        return noteService.getNoteById(id);
+    public ResponseEntity<NoteDto> getOne(@PathVariable Long id, WebRequest request) {
+        String etag = treeVersionService.noteETag(id);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(FolderController.REVALIDATE).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(FolderController.REVALIDATE).body(noteService.getNoteById(id));
     }
 
     // Create a new note
@@ -45,6 +72,18 @@ public class NoteController {
         return noteService.updateNote(id, input);
     }
 
+    // Incremental update of the content: only the edits travel, 409 if the note moved on since baseVersion
+    @PatchMapping("/{id}/content")
+    public NoteContentPatchResultDto patchContent(@PathVariable Long id, @RequestBody NoteContentPatchDto input) {
+        return noteService.patchContent(id, input);
+    }
+
+    // Move a note to another folder (folderId null = root)
+    @PatchMapping("/{id}/move")
+    public NoteDto move(@PathVariable Long id, @RequestBody NoteMoveDto input) {
+        return noteService.moveNote(id, input);
+    }
+
     // Delete a note
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
@@ -54,19 +93,41 @@ public class NoteController {
 
     // Export user's notes to a ZIP archive
     // Final URL: /api/notes/export/zip
+    // The archive is streamed to the client while it is built (never held in memory)
     @GetMapping("/export/zip")
-    public ResponseEntity<byte[]> downloadZip() {
-        try {
-            byte[] zipData = exportService.exportUserNotesToZip();
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" +
-                            "mes_notes_hantees.zip\"")
-                    .contentType(MediaType.valueOf("application/zip"))
-                    .body(zipData);
-
-        } catch (IOException e) {
-            return ResponseEntity.internalServerError().build();
+    public ResponseEntity<StreamingResponseBody> downloadZip() {
+        Long userId = exportService.getCurrentUserId();
+        StreamingResponseBody body = out -> exportService.writeUserNotesZip(userId, out);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" +
+                        "mes_notes_hantees.zip\"")
+                .contentType(MediaType.valueOf("application/zip"))
+                .body(body);
+    }
+
+    // Export one note to PDF, rendered from its markdown on the server
+    // Final URL: /api/notes/{id}/export/pdf
+    @GetMapping("/{id}/export/pdf")
+    public ResponseEntity<StreamingResponseBody> downloadPdf(@PathVariable Long id) {
+        NoteExportView note = pdfExportService.getNoteForExport(id);
+        StreamingResponseBody body = out -> pdfExportService.writeNotePdf(note, out);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(note.getTitle() + ".pdf", StandardCharsets.UTF_8).build().toString())
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(body);
+    }
+
+    // Import a ZIP of markdown files (folders included) or a single .md file
+    // Final URL: /api/notes/import (multipart "file", optional folderId = where to import)
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public NoteImportResultDto importNotes(@RequestParam("file") MultipartFile file,
+                                           @RequestParam(required = false) Long folderId) throws IOException {
+        try (InputStream input = file.getInputStream()) {
+            return importService.importNotes(input, file.getOriginalFilename(), folderId);
         }
     }
-}
\ No newline at end of file
+}
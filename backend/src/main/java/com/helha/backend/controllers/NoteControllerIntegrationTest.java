@@ -3,15 +3,21 @@ package com.helha.backend.controllers;
 import com.helha.backend.application.dto.NoteDto;
 import com.helha.backend.application.services.ExportService;
 import com.helha.backend.application.services.NoteService;
+import com.helha.backend.application.services.TreeVersionService;
 import com.helha.backend.controllers.exceptions.GenericNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -30,6 +36,14 @@ class NoteControllerIntegrationTest {
     @MockBean
     private ExportService exportService;
 
+    @MockBean
+    private TreeVersionService treeVersionService;
+
+    @BeforeEach
+    void stubETags() {
+        when(treeVersionService.noteETag(anyLong())).thenReturn("\"note-1-1-7\"");
+    }
+
     // Test CODE 401 : Accès non autorisé (Pas de token)
     @Test
     void shouldReturn401_WhenUnauthenticated() throws Exception {
@@ -64,4 +78,14 @@ class NoteControllerIntegrationTest {
         mockMvc.perform(get("/api/notes/999"))
                 .andExpect(status().isNotFound()); // Vérifie le code 404
     }
+
+    // Test CODE 304 : la version du client est à jour, la note n'est pas rechargée
+    @Test
+    @WithMockUser(username = "zombieHunter")
+    void shouldReturn304_WhenETagMatches() throws Exception {
+        mockMvc.perform(get("/api/notes/1").header(HttpHeaders.IF_NONE_MATCH, "\"note-1-1-7\""))
+                .andExpect(status().isNotModified());
+
+        verify(noteService, never()).getNoteById(1L);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.helha.backend.controllers;
+
+import com.helha.backend.application.dto.SyncDto;
+import com.helha.backend.application.services.SyncService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/sync")
+public class SyncController {
+
+    private final SyncService syncService;
+
+    public SyncController(SyncService syncService) {
+        this.syncService = syncService;
+    }
+
+    // GET /api/sync?since=N : notes, folders and tombstones changed after version N
+    // GET /api/sync         : full snapshot (first synchronisation)
+    @GetMapping
+    public SyncDto getChanges(@RequestParam(required = false) Long since) {
+        return syncService.getChangesSince(since);
+    }
+}
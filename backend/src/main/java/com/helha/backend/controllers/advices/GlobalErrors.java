@@ -1,10 +1,16 @@
 package com.helha.backend.controllers.advices;
 
+import com.helha.backend.controllers.exceptions.GenericBadRequestException;
+import com.helha.backend.controllers.exceptions.GenericConflictException;
 import com.helha.backend.controllers.exceptions.GenericNotFoundException;
+import com.helha.backend.controllers.exceptions.GenericTooManyRequestsException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.net.URI;
@@ -21,6 +27,37 @@ public class GlobalErrors {
         return ex.getBody();
     }
 
+    // invalid input detected by a service (400)
+    @ExceptionHandler(GenericBadRequestException.class)
+    public ProblemDetail handleBadRequest(GenericBadRequestException ex) {
+        return ex.getBody();
+    }
+
+    // the resource changed since the version the client based its request on (409)
+    @ExceptionHandler(GenericConflictException.class)
+    public ProblemDetail handleConflict(GenericConflictException ex) {
+        return ex.getBody();
+    }
+
+
+    // the server is saturated: the client retries after the delay of the Retry-After header (429)
+    @ExceptionHandler(GenericTooManyRequestsException.class)
+    public ResponseEntity<ProblemDetail> handleTooManyRequests(GenericTooManyRequestsException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(ex.getBody());
+    }
+
+
+    // upload larger than spring.servlet.multipart.max-file-size (413)
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ProblemDetail handleUploadTooLarge(MaxUploadSizeExceededException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.PAYLOAD_TOO_LARGE,
+                "The uploaded file exceeds the maximum size of " + ex.getMaxUploadSize() + " bytes");
+        problemDetail.setTitle("Payload Too Large");
+        return problemDetail;
+    }
+
 
     // manage data base's errors (ex: forget folder_id)
     @ExceptionHandler(DataIntegrityViolationException.class)
@@ -0,0 +1,18 @@
+package com.helha.backend.controllers.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.ErrorResponseException;
+
+public class GenericBadRequestException extends ErrorResponseException {
+
+    public GenericBadRequestException(String detail) {
+        super(HttpStatus.BAD_REQUEST, asProblemDetail(detail), null);
+    }
+
+    private static ProblemDetail asProblemDetail(String detail) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, detail);
+        problemDetail.setTitle("Invalid Request");
+        return problemDetail;
+    }
+}
@@ -0,0 +1,18 @@
+package com.helha.backend.controllers.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.ErrorResponseException;
+
+public class GenericConflictException extends ErrorResponseException {
+
+    public GenericConflictException(String detail) {
+        super(HttpStatus.CONFLICT, asProblemDetail(detail), null);
+    }
+
+    private static ProblemDetail asProblemDetail(String detail) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, detail);
+        problemDetail.setTitle("Conflict");
+        return problemDetail;
+    }
+}
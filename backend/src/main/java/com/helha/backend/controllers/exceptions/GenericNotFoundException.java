@@ -7,13 +7,18 @@ import org.springframework.web.ErrorResponseException;
 public class GenericNotFoundException extends ErrorResponseException {
 
     public GenericNotFoundException(Long id, String resourceName) {
-        super(HttpStatus.NOT_FOUND, asProblemDetail(id, resourceName), null);
+        super(HttpStatus.NOT_FOUND, asProblemDetail(String.format("%s with id %d is not found", resourceName, id)), null);
     }
 
-    private static ProblemDetail asProblemDetail(Long id, String resourceName) {
+    // resources without a numeric id (export jobs, users by name): "<resource> is not found"
+    public GenericNotFoundException(String resource) {
+        super(HttpStatus.NOT_FOUND, asProblemDetail(resource + " is not found"), null);
+    }
+
+    private static ProblemDetail asProblemDetail(String detail) {
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
                 HttpStatus.NOT_FOUND,
-                String.format("%s with id %d is not found", resourceName, id)
+                detail
         );
         problemDetail.setTitle("Resource Not Found");
         return problemDetail;
@@ -0,0 +1,28 @@
+package com.helha.backend.controllers.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.ErrorResponseException;
+
+import java.time.Duration;
+
+public class GenericTooManyRequestsException extends ErrorResponseException {
+
+    // sent back in the Retry-After header
+    private final Duration retryAfter;
+
+    public GenericTooManyRequestsException(String detail, Duration retryAfter) {
+        super(HttpStatus.TOO_MANY_REQUESTS, asProblemDetail(detail), null);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    private static ProblemDetail asProblemDetail(String detail) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, detail);
+        problemDetail.setTitle("Too Many Requests");
+        return problemDetail;
+    }
+}
@@ -10,18 +10,32 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "FOLDERS")
+@Table(name = "FOLDERS", indexes = {
+        // delta sync: changes of a user since a given version
+        @Index(name = "idx_folders_user_sync", columnList = "user_id, sync_version"),
+        // lazy tree: sub-folders of a folder sorted by name
+        @Index(name = "idx_folders_parent_name", columnList = "user_id, parent_id, deleted, name, id"),
+        // materialised path: a whole subtree is one range scan on the path prefix
+        @Index(name = "idx_folders_user_path", columnList = "user_id, path"),
+        // bin: what was binned on its own, most recently deleted first, keyset on (deleted_at, id)
+        @Index(name = "idx_folders_bin_roots", columnList = "user_id, deleted, bin_root, deleted_at, id")
+})
 @Data
 @NoArgsConstructor
 public class DbFolder {
 
+    public static final String ROOT_PATH = "/";
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private DbUser user;
 
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "folders_ids")
+    @TableGenerator(name = "folders_ids", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = IdGenerators.FOLDERS,
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -34,6 +48,29 @@ public class DbFolder {
     @Column
     private LocalDateTime deletedAt;
 
+    // shared by the rows sent to the bin together (a folder and its subtree),
+    // so that a restore brings back exactly what was deleted with it
+    @Column(name = "deletion_batch", length = 36)
+    private String deletionBatch;
+
+    // binned on its own and listed in the bin; false for what went along with a folder
+    @Column(name = "bin_root", nullable = false)
+    private boolean binRoot = false;
+
+    // tree version of the user at the last change of this folder (delta sync)
+    @Column(name = "sync_version", nullable = false)
+    private long syncVersion = 0;
+
+
+    // materialised path: ids of the ancestors from the root, "/" for a root folder, "/1/5/" for a folder under 1 > 5.
+    // The folder's own id is not part of it, so moving a folder only rewrites the paths below it.
+    // Descendants of a folder are the rows whose path starts with getSubtreePrefix().
+    @Column(name = "path", length = 512)
+    private String path = ROOT_PATH;
+
+    // number of ancestors (0 for a root folder)
+    @Column(nullable = false)
+    private int depth = 0;
 
     //to prevent an infinite loop
     @ManyToOne(fetch = FetchType.LAZY)
@@ -50,6 +87,24 @@ public class DbFolder {
 
     public DbFolder(String name, DbFolder parent) {
         this.name = name;
+        setParent(parent);
+    }
+
+    // keeps path and depth in line with the parent (the descendants of a moved folder
+    // are rewritten in bulk by IFolderRepository.rewriteSubtreePaths)
+    public void setParent(DbFolder parent) {
         this.parent = parent;
+        this.path = parent == null ? ROOT_PATH : parent.getSubtreePrefix();
+        this.depth = parent == null ? 0 : parent.getDepth() + 1;
+    }
+
+    // path prefix shared by every descendant of this folder
+    public String getSubtreePrefix() {
+        return path + id + "/";
+    }
+
+    // true if the other folder is this folder or lies somewhere below it (no walk up the parents)
+    public boolean contains(DbFolder other) {
+        return id.equals(other.getId()) || other.getPath().startsWith(getSubtreePrefix());
     }
 }
\ No newline at end of file
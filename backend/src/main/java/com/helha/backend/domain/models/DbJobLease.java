@@ -0,0 +1,39 @@
+package com.helha.backend.domain.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// lock of a scheduled job shared by all the backend instances: one row per job (or per shard of a job)
+@Entity
+@Table(name = "JOB_LEASES")
+@Data
+@NoArgsConstructor
+public class DbJobLease {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    // instance holding the lease, null when free
+    @Column(length = 200)
+    private String owner;
+
+    // the lease can be taken over once this time is past (the holder died without releasing it)
+    @Column
+    private LocalDateTime lockedUntil;
+
+    // last renewal by the holder
+    @Column
+    private LocalDateTime heartbeatAt;
+
+    // end of the last complete run of the job by any instance: the others skip it for that run
+    @Column
+    private LocalDateTime lastCompletedAt;
+
+    public DbJobLease(String name) {
+        this.name = name;
+    }
+}
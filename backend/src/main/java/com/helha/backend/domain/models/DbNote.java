@@ -12,7 +12,14 @@ import java.time.LocalDateTime;
 // ... autres imports
 
 @Entity
-@Table(name = "NOTES")
+@Table(name = "NOTES", indexes = {
+        // delta sync: changes of a user since a given version
+        @Index(name = "idx_notes_user_sync", columnList = "user_id, sync_version"),
+        // lazy tree: notes of a folder sorted by title
+        @Index(name = "idx_notes_folder_title", columnList = "user_id, folder_id, deleted, title, id"),
+        // bin: what was binned on its own, most recently deleted first, keyset on (deleted_at, id)
+        @Index(name = "idx_notes_bin_roots", columnList = "user_id, deleted, bin_root, deleted_at, id")
+})
 @Data
 @NoArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
@@ -24,7 +31,10 @@ public class DbNote {
 
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "notes_ids")
+    @TableGenerator(name = "notes_ids", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = IdGenerators.NOTES,
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -53,6 +63,19 @@ public class DbNote {
     @Column
     private LocalDateTime deletedAt;
 
+    // shared by the rows sent to the bin together (a folder and its subtree),
+    // so that a restore brings back exactly what was deleted with it
+    @Column(name = "deletion_batch", length = 36)
+    private String deletionBatch;
+
+    // binned on its own and listed in the bin; false for what went along with a folder
+    @Column(name = "bin_root", nullable = false)
+    private boolean binRoot = false;
+
+    // tree version of the user at the last change of this note (delta sync)
+    @Column(name = "sync_version", nullable = false)
+    private long syncVersion = 0;
+
     @ManyToOne(fetch = FetchType.LAZY)
 
     @JoinColumn(name = "folder_id", nullable = true)
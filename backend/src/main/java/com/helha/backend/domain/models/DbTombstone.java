@@ -0,0 +1,52 @@
+package com.helha.backend.domain.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// trace of a note or folder permanently deleted, so that delta sync clients can drop it too
+@Entity
+@Table(name = "TOMBSTONES", indexes = {
+        @Index(name = "idx_tombstones_user_sync", columnList = "user_id, sync_version"),
+        @Index(name = "idx_tombstones_deleted_at", columnList = "deletedAt")
+})
+@Data
+@NoArgsConstructor
+public class DbTombstone {
+
+    public enum Kind { NOTE, FOLDER }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "tombstones_ids")
+    @TableGenerator(name = "tombstones_ids", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = IdGenerators.TOMBSTONES,
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
+    private Long id;
+
+    // plain id: the tombstone must not depend on rows that are being deleted
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Kind kind;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    @Column(name = "sync_version", nullable = false)
+    private long syncVersion;
+
+    @Column(nullable = false)
+    private LocalDateTime deletedAt;
+
+    public DbTombstone(Long userId, Kind kind, Long entityId, long syncVersion) {
+        this.userId = userId;
+        this.kind = kind;
+        this.entityId = entityId;
+        this.syncVersion = syncVersion;
+        this.deletedAt = LocalDateTime.now();
+    }
+}
@@ -10,7 +10,10 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class DbUser {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "users_ids")
+    @TableGenerator(name = "users_ids", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = IdGenerators.USERS,
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -20,4 +23,12 @@ public class DbUser {
     private String password; // Hashed
 
     private String role = "USER";
-}
\ No newline at end of file
+
+    // incremented by every note/folder mutation of the user (ETag of the tree)
+    @Column(nullable = false)
+    private long treeVersion = 0;
+
+    // tombstones up to this version were pruned: a client that synced before it must start over
+    @Column(nullable = false)
+    private long syncHorizon = 0;
+}
@@ -0,0 +1,24 @@
+package com.helha.backend.domain.models;
+
+/**
+ * Pooled id generation shared by the entities: one row per entity in the id_generators table,
+ * each round trip reserves ALLOCATION_SIZE ids. Unlike IDENTITY, the id is known before the
+ * insert, so Hibernate can send the inserts as JDBC batches (hibernate.jdbc.batch_size).
+ * The rows are moved above the existing ids at startup by IdGeneratorInitializer.
+ */
+public final class IdGenerators {
+
+    public static final String TABLE = "id_generators";
+    public static final String NAME_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+    // same value as hibernate.jdbc.batch_size: one reservation per batch
+    public static final int ALLOCATION_SIZE = 50;
+
+    public static final String USERS = "users";
+    public static final String FOLDERS = "folders";
+    public static final String NOTES = "notes";
+    public static final String TOMBSTONES = "tombstones";
+
+    private IdGenerators() {
+    }
+}
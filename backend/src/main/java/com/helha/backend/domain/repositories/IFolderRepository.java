@@ -1,10 +1,22 @@
 package com.helha.backend.domain.repositories;
 
 import com.helha.backend.domain.models.DbFolder;
+import com.helha.backend.domain.repositories.projections.BinFolderView;
+import com.helha.backend.domain.repositories.projections.BinRestoreView;
+import com.helha.backend.domain.repositories.projections.ExpiredFolderView;
+import com.helha.backend.domain.repositories.projections.FolderChildView;
+import com.helha.backend.domain.repositories.projections.FolderNodeView;
+import com.helha.backend.domain.repositories.projections.FolderPathView;
+import com.helha.backend.domain.repositories.projections.FolderSyncView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,8 +24,153 @@ public interface IFolderRepository extends JpaRepository<DbFolder, Long> {
 
 
     List<DbFolder> findByUserIdAndParentIsNullAndDeletedFalse(Long userId);
-    List<DbFolder> findByUserIdAndDeletedTrue(Long userId);
     List<DbFolder> findByUserIdAndDeletedFalse(Long userId);
-    // Find deleted folders where the deletion date is before a specific date
-    List<DbFolder> findByDeletedTrueAndDeletedAtBefore(LocalDateTime thresholdDate);
-}
\ No newline at end of file
+
+    // All active folders of a user in one flat query (the tree is linked in memory by parentId)
+    @Query("select f.id as id, f.name as name, f.parent.id as parentId from DbFolder f " +
+            "where f.user.id = :userId and f.deleted = false order by f.id")
+    List<FolderNodeView> findTreeNodesByUserId(@Param("userId") Long userId);
+
+    // Folders created, renamed, moved, binned or restored after a version (delta sync)
+    @Query("select f.id as id, f.name as name, f.parent.id as parentId, f.deleted as deleted, " +
+            "f.deletedAt as deletedAt, f.syncVersion as syncVersion from DbFolder f " +
+            "where f.user.id = :userId and f.syncVersion > :since order by f.syncVersion, f.id")
+    List<FolderSyncView> findChangedSince(@Param("userId") Long userId, @Param("since") long since);
+
+    boolean existsByIdAndUserIdAndDeletedFalse(Long id, Long userId);
+
+    // --- Lazy tree: direct sub-folders, keyset pagination on (name, id) ---
+    String CHILD_SELECT = "select f.id as id, f.name as name, f.parent.id as parentId, " +
+            "case when exists (select c.id from DbFolder c where c.parent = f and c.deleted = false) " +
+            "or exists (select n.id from DbNote n where n.folder = f and n.deleted = false) " +
+            "then true else false end as hasChildren from DbFolder f ";
+    String AFTER_NAME = "and (f.name > :afterName or (f.name = :afterName and f.id > :afterId)) order by f.name, f.id";
+
+    @Query(CHILD_SELECT + "where f.user.id = :userId and f.parent.id = :parentId and f.deleted = false " + AFTER_NAME)
+    List<FolderChildView> findChildrenPage(@Param("userId") Long userId, @Param("parentId") Long parentId,
+                                           @Param("afterName") String afterName, @Param("afterId") long afterId,
+                                           Pageable page);
+
+    @Query(CHILD_SELECT + "where f.id = :id")
+    FolderChildView findHeaderById(@Param("id") Long id);
+
+    @Query(CHILD_SELECT + "where f.user.id = :userId and f.parent is null and f.deleted = false " + AFTER_NAME)
+    List<FolderChildView> findRootChildrenPage(@Param("userId") Long userId,
+                                               @Param("afterName") String afterName, @Param("afterId") long afterId,
+                                               Pageable page);
+
+    // --- Materialised path (prefix = DbFolder.getSubtreePrefix()) ---
+
+    // ids of all the descendants of a folder, at any depth
+    @Query("select f.id from DbFolder f where f.user.id = :userId and f.path like concat(:prefix, '%')")
+    List<Long> findSubtreeIds(@Param("userId") Long userId, @Param("prefix") String prefix);
+
+    // active folders below a folder, in the shape of findTreeNodesByUserId (PDF export of a folder)
+    @Query("select f.id as id, f.name as name, f.parent.id as parentId from DbFolder f " +
+            "where f.user.id = :userId and f.deleted = false and f.path like concat(:prefix, '%') order by f.name, f.id")
+    List<FolderNodeView> findSubtreeNodes(@Param("userId") Long userId, @Param("prefix") String prefix);
+
+    // moves every descendant along with its ancestor: swaps the old prefix for the new one
+    @Modifying
+    @Query("update DbFolder f set f.path = concat(:newPrefix, substring(f.path, length(:oldPrefix) + 1)), " +
+            "f.depth = f.depth + :depthDelta " +
+            "where f.user.id = :userId and f.path like concat(:oldPrefix, '%')")
+    int rewriteSubtreePaths(@Param("userId") Long userId, @Param("oldPrefix") String oldPrefix,
+                            @Param("newPrefix") String newPrefix, @Param("depthDelta") int depthDelta);
+
+    // --- Bin: a folder goes to the bin with its whole subtree, under one deletion batch ---
+
+    // the folders binned on their own, not the ones that went along with their parent;
+    // keyset on (deletedAt, id) descending, a range scan of idx_folders_bin_roots
+    @Query("select f.id as id, f.name as name, p.id as parentId, f.deletedAt as deletedAt " +
+            "from DbFolder f left join f.parent p where f.user.id = :userId and f.deleted = true and f.binRoot = true " +
+            "and (f.deletedAt < :afterAt or (f.deletedAt = :afterAt and f.id < :afterId)) " +
+            "order by f.deletedAt desc, f.id desc")
+    List<BinFolderView> findBinPage(@Param("userId") Long userId, @Param("afterAt") LocalDateTime afterAt,
+                                    @Param("afterId") long afterId, Pageable page);
+
+    // descendants still active join the batch; those already in the bin keep their own
+    @Modifying
+    @Query("update DbFolder f set f.deleted = true, f.deletedAt = :deletedAt, f.deletionBatch = :batch, " +
+            "f.binRoot = false, f.syncVersion = :version " +
+            "where f.user.id = :userId and f.deleted = false and f.path like concat(:prefix, '%')")
+    int binSubtree(@Param("userId") Long userId, @Param("prefix") String prefix, @Param("batch") String batch,
+                   @Param("deletedAt") LocalDateTime deletedAt, @Param("version") long version);
+
+    @Modifying
+    @Query("update DbFolder f set f.deleted = false, f.deletedAt = null, f.deletionBatch = null, f.binRoot = false, " +
+            "f.syncVersion = :version " +
+            "where f.user.id = :userId and f.deletionBatch = :batch and f.path like concat(:prefix, '%')")
+    int restoreSubtree(@Param("userId") Long userId, @Param("prefix") String prefix, @Param("batch") String batch,
+                       @Param("version") long version);
+
+    // --- Bulk restore: whole deletion batches in one statement ---
+
+    // the picked folders of the bin, parents first, with what decides where they come back
+    @Query("select f.id as id, f.deletionBatch as deletionBatch, f.binRoot as binRoot, p.id as parentId, " +
+            "p.deleted as parentDeleted, p.deletionBatch as parentBatch " +
+            "from DbFolder f left join f.parent p " +
+            "where f.user.id = :userId and f.deleted = true and f.id in :ids order by f.depth, f.id")
+    List<BinRestoreView> findRestorableAmong(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update DbFolder f set f.deleted = false, f.deletedAt = null, f.deletionBatch = null, f.binRoot = false, " +
+            "f.syncVersion = :version where f.user.id = :userId and f.deletionBatch in :batches")
+    int restoreBatches(@Param("userId") Long userId, @Param("batches") Collection<String> batches,
+                       @Param("version") long version);
+
+    // --- Bin cleanup: subtrees purged bottom-up, ids only ---
+
+    // ancestors first: purging them takes their expired descendants along
+    // (folders without an owner have no path-based subtree to purge and are left alone)
+    // shard = user id modulo the number of shards (a subtree always belongs to one user)
+    @Query("select f.id as id, f.user.id as userId, f.path as path, f.depth as depth from DbFolder f " +
+            "where f.deleted = true and f.deletedAt < :threshold and f.user is not null " +
+            "and mod(f.user.id, :shards) = :shard order by f.depth, f.id")
+    List<ExpiredFolderView> findExpired(@Param("threshold") LocalDateTime threshold,
+                                        @Param("shard") int shard, @Param("shards") int shards, Pageable page);
+
+    // --- Bulk operations on the bin of a user: ancestors first, like findExpired ---
+
+    @Query("select f.id as id, f.user.id as userId, f.path as path, f.depth as depth from DbFolder f " +
+            "where f.user.id = :userId and f.deleted = true order by f.depth, f.id")
+    List<ExpiredFolderView> findBinFolders(@Param("userId") Long userId, Pageable page);
+
+    // the folders of the list that are in the bin of the user, the others are ignored
+    @Query("select f.id as id, f.user.id as userId, f.path as path, f.depth as depth from DbFolder f " +
+            "where f.user.id = :userId and f.deleted = true and f.id in :ids order by f.depth, f.id")
+    List<ExpiredFolderView> findBinFoldersAmong(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Query("select max(f.depth) from DbFolder f where f.user.id = :userId and f.path like concat(:prefix, '%')")
+    Integer findMaxDepthInSubtree(@Param("userId") Long userId, @Param("prefix") String prefix);
+
+    @Query("select f.id from DbFolder f where f.user.id = :userId and f.path like concat(:prefix, '%') " +
+            "and f.depth = :depth order by f.id")
+    List<Long> findSubtreeIdsAtDepth(@Param("userId") Long userId, @Param("prefix") String prefix,
+                                     @Param("depth") int depth, Pageable page);
+
+    // rows created before the path column existed (see FolderPathBackfill)
+    boolean existsByPathIsNull();
+
+    @Query("select f.id as id, f.parent.id as parentId, f.path as path from DbFolder f")
+    List<FolderPathView> findAllPaths();
+
+    @Modifying
+    @Query("update DbFolder f set f.path = :path, f.depth = :depth where f.id = :id")
+    void updatePath(@Param("id") Long id, @Param("path") String path, @Param("depth") int depth);
+
+    // --- Backfill of the bin roots: folders binned before the flag existed, recognised by their batch ---
+
+    @Query("select f.id from DbFolder f left join f.parent p where f.deleted = true and f.binRoot = false " +
+            "and (p is null or f.deletionBatch is null or p.deletionBatch is null or p.deletionBatch <> f.deletionBatch)")
+    List<Long> findUnmarkedBinRoots();
+
+    @Modifying
+    @Query("update DbFolder f set f.binRoot = true where f.id in :ids")
+    int markBinRoots(@Param("ids") Collection<Long> ids);
+
+    // version of the folders created by an import, set once they are all inserted
+    @Modifying
+    @Query("update DbFolder f set f.syncVersion = :version where f.id in :ids")
+    int stampSyncVersion(@Param("ids") Collection<Long> ids, @Param("version") long version);
+}
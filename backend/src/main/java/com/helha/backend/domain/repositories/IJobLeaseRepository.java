@@ -0,0 +1,55 @@
+package com.helha.backend.domain.repositories;
+
+import com.helha.backend.domain.models.DbJobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+// Every update is one conditional statement committed on its own: the row lock of the database
+// decides which instance wins, and the lease is visible to the others at once.
+@Repository
+public interface IJobLeaseRepository extends JpaRepository<DbJobLease, String> {
+
+    // plain insert, never a merge: fails on the primary key when another instance created the row first
+    @Transactional
+    @Modifying
+    @Query(value = "insert into job_leases (name) values (:name)", nativeQuery = true)
+    int create(@Param("name") String name);
+
+    // free, expired, or already ours; and not completed since doneSince (null: whenever it was completed)
+    @Transactional
+    @Modifying
+    @Query("update DbJobLease l set l.owner = :owner, l.lockedUntil = :until, l.heartbeatAt = :now " +
+            "where l.name = :name and (l.owner is null or l.owner = :owner or l.lockedUntil < :now) " +
+            "and (cast(:doneSince as LocalDateTime) is null or l.lastCompletedAt is null or l.lastCompletedAt < :doneSince)")
+    int acquire(@Param("name") String name, @Param("owner") String owner,
+                @Param("now") LocalDateTime now, @Param("until") LocalDateTime until,
+                @Param("doneSince") LocalDateTime doneSince);
+
+    boolean existsByNameAndLastCompletedAtGreaterThanEqual(String name, LocalDateTime doneSince);
+
+    // 0 once another instance has taken the lease over
+    @Transactional
+    @Modifying
+    @Query("update DbJobLease l set l.lockedUntil = :until, l.heartbeatAt = :now " +
+            "where l.name = :name and l.owner = :owner")
+    int renew(@Param("name") String name, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    @Transactional
+    @Modifying
+    @Query("update DbJobLease l set l.owner = null, l.lockedUntil = null where l.name = :name and l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner);
+
+    // releases the lease and records that the job is done
+    @Transactional
+    @Modifying
+    @Query("update DbJobLease l set l.owner = null, l.lockedUntil = null, l.lastCompletedAt = :now " +
+            "where l.name = :name and l.owner = :owner")
+    int complete(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
@@ -1,11 +1,22 @@
 package com.helha.backend.domain.repositories;
 
 import com.helha.backend.domain.models.DbNote;
+import com.helha.backend.domain.repositories.projections.BinNoteView;
+import com.helha.backend.domain.repositories.projections.ExpiredNoteView;
+import com.helha.backend.domain.repositories.projections.NoteExportView;
+import com.helha.backend.domain.repositories.projections.NoteHeaderView;
+import com.helha.backend.domain.repositories.projections.NoteSyncView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface INoteRepository extends JpaRepository<DbNote, Long> {
@@ -14,8 +25,149 @@ public interface INoteRepository extends JpaRepository<DbNote, Long> {
     List<DbNote> findByFolderIdAndDeletedFalse(Long folderId);
     List<DbNote> findByUserIdAndDeletedFalse(Long userId);
     List<DbNote> findByUserIdAndFolderIsNullAndDeletedFalse(Long userId);
-    // Find deleted notes only (to display in the bin)
-    List<DbNote> findByUserIdAndDeletedTrue(Long userId);
-    //   Find deleted notes where the deletion date is before a specific date
-    List<DbNote> findByDeletedTrueAndDeletedAtBefore(LocalDateTime thresholdDate);
-}
\ No newline at end of file
+
+    // Columns of a note outline (everything but the content)
+    String HEADER_COLUMNS = "n.id as id, n.title as title, n.folder.id as folderId, n.updatedAt as updatedAt, " +
+            "n.wordCount as wordCount, n.lineCount as lineCount, n.characterCount as characterCount, " +
+            "n.sizeInBytes as sizeInBytes ";
+    String HEADER_SELECT = "select " + HEADER_COLUMNS + "from DbNote n ";
+
+    // Outline of all active notes stored in a folder, without loading the content (used by the tree builder)
+    @Query(HEADER_SELECT + "where n.user.id = :userId and n.deleted = false and n.folder is not null order by n.id")
+    List<NoteHeaderView> findTreeHeadersByUserId(@Param("userId") Long userId);
+
+    // Notes created, updated, binned or restored after a version (delta sync), without their content
+    @Query("select " + HEADER_COLUMNS + ", n.deleted as deleted, n.deletedAt as deletedAt, " +
+            "n.syncVersion as syncVersion from DbNote n " +
+            "where n.user.id = :userId and n.syncVersion > :since order by n.syncVersion, n.id")
+    List<NoteSyncView> findChangedSince(@Param("userId") Long userId, @Param("since") long since);
+
+    // --- Lazy tree: notes of one folder, keyset pagination on (title, id) ---
+    String AFTER_TITLE = "and (n.title > :afterTitle or (n.title = :afterTitle and n.id > :afterId)) order by n.title, n.id";
+
+    @Query(HEADER_SELECT + "where n.user.id = :userId and n.folder.id = :folderId and n.deleted = false " + AFTER_TITLE)
+    List<NoteHeaderView> findFolderNotesPage(@Param("userId") Long userId, @Param("folderId") Long folderId,
+                                             @Param("afterTitle") String afterTitle, @Param("afterId") long afterId,
+                                             Pageable page);
+
+    @Query(HEADER_SELECT + "where n.user.id = :userId and n.folder is null and n.deleted = false " + AFTER_TITLE)
+    List<NoteHeaderView> findRootNotesPage(@Param("userId") Long userId,
+                                           @Param("afterTitle") String afterTitle, @Param("afterId") long afterId,
+                                           Pageable page);
+
+    // ids of the notes stored in a folder or anywhere below it (prefix = DbFolder.getSubtreePrefix())
+    @Query("select n.id from DbNote n join n.folder f " +
+            "where f.id = :folderId or (f.user.id = :userId and f.path like concat(:prefix, '%'))")
+    List<Long> findIdsInSubtree(@Param("userId") Long userId, @Param("folderId") Long folderId,
+                                @Param("prefix") String prefix);
+
+    // --- ZIP export: active notes with their content, keyset batches ---
+    String EXPORT_SELECT = "select n.id as id, n.title as title, n.folder.id as folderId, n.content as content from DbNote n ";
+
+    @Query(EXPORT_SELECT + "where n.user.id = :userId and n.folder is null and n.deleted = false " +
+            "and n.id > :afterId order by n.id")
+    List<NoteExportView> findRootNotesForExport(@Param("userId") Long userId, @Param("afterId") long afterId,
+                                                Pageable page);
+
+    // grouped by folder so that file names only have to be unique within the current folder
+    @Query(EXPORT_SELECT + "where n.user.id = :userId and n.folder is not null and n.deleted = false " +
+            "and (n.folder.id > :afterFolderId or (n.folder.id = :afterFolderId and n.id > :afterId)) " +
+            "order by n.folder.id, n.id")
+    List<NoteExportView> findFolderNotesForExport(@Param("userId") Long userId,
+                                                  @Param("afterFolderId") long afterFolderId,
+                                                  @Param("afterId") long afterId, Pageable page);
+
+    // --- PDF export: one note, or the notes of one folder at a time ---
+    @Query(EXPORT_SELECT + "where n.id = :id and n.user.id = :userId")
+    Optional<NoteExportView> findOneForExport(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query(EXPORT_SELECT + "where n.folder.id = :folderId and n.deleted = false and n.id > :afterId order by n.id")
+    List<NoteExportView> findNotesOfFolderForExport(@Param("folderId") Long folderId, @Param("afterId") long afterId,
+                                                    Pageable page);
+
+    // notes an export will go through (progress of the export jobs)
+    long countByUserIdAndDeletedFalse(Long userId);
+
+    // --- Bin: notes of a binned folder share its deletion batch ---
+    String IN_SUBTREE = "n.folder.id in (select f.id from DbFolder f " +
+            "where f.id = :folderId or (f.user.id = :userId and f.path like concat(:prefix, '%')))";
+
+    // notes binned on their own, not the ones that went along with their folder;
+    // keyset on (deletedAt, id) descending, a range scan of idx_notes_bin_roots
+    @Query("select n.id as id, n.title as title, f.id as folderId, n.deletedAt as deletedAt, " +
+            "n.sizeInBytes as sizeInBytes from DbNote n left join n.folder f " +
+            "where n.user.id = :userId and n.deleted = true and n.binRoot = true " +
+            "and (n.deletedAt < :afterAt or (n.deletedAt = :afterAt and n.id < :afterId)) " +
+            "order by n.deletedAt desc, n.id desc")
+    List<BinNoteView> findBinPage(@Param("userId") Long userId, @Param("afterAt") LocalDateTime afterAt,
+                                  @Param("afterId") long afterId, Pageable page);
+
+    @Modifying
+    @Query("update DbNote n set n.deleted = true, n.deletedAt = :deletedAt, n.deletionBatch = :batch, n.binRoot = false, " +
+            "n.syncVersion = :version where n.user.id = :userId and n.deleted = false and " + IN_SUBTREE)
+    int binSubtree(@Param("userId") Long userId, @Param("folderId") Long folderId, @Param("prefix") String prefix,
+                   @Param("batch") String batch, @Param("deletedAt") LocalDateTime deletedAt,
+                   @Param("version") long version);
+
+    @Modifying
+    @Query("update DbNote n set n.deleted = false, n.deletedAt = null, n.deletionBatch = null, n.binRoot = false, " +
+            "n.syncVersion = :version " +
+            "where n.user.id = :userId and n.deletionBatch = :batch and " + IN_SUBTREE)
+    int restoreSubtree(@Param("userId") Long userId, @Param("folderId") Long folderId, @Param("prefix") String prefix,
+                       @Param("batch") String batch, @Param("version") long version);
+
+    @Modifying
+    @Query("update DbNote n set n.deleted = false, n.deletedAt = null, n.deletionBatch = null, n.binRoot = false, " +
+            "n.syncVersion = :version where n.user.id = :userId and n.deletionBatch in :batches")
+    int restoreBatches(@Param("userId") Long userId, @Param("batches") Collection<String> batches,
+                       @Param("version") long version);
+
+    // --- Bulk operations on the bin of a user (ids of other users or outside the bin are ignored) ---
+
+    @Query("select n.id from DbNote n where n.user.id = :userId and n.deleted = true order by n.id")
+    List<Long> findBinIds(@Param("userId") Long userId, Pageable page);
+
+    @Query("select n.id from DbNote n where n.user.id = :userId and n.deleted = true and n.id in :ids")
+    List<Long> findBinIdsAmong(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    // notes whose folder is still in the bin come back at the root level
+    @Modifying
+    @Query("update DbNote n set n.folder = null where n.user.id = :userId and n.deleted = true and n.id in :ids " +
+            "and n.folder.id in (select f.id from DbFolder f where f.deleted = true)")
+    int detachFromBinnedFolders(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update DbNote n set n.deleted = false, n.deletedAt = null, n.deletionBatch = null, n.binRoot = false, " +
+            "n.syncVersion = :version " +
+            "where n.user.id = :userId and n.deleted = true and n.id in :ids")
+    int restoreAll(@Param("userId") Long userId, @Param("ids") Collection<Long> ids, @Param("version") long version);
+
+    // version of the rows created by an import, set once they are all inserted
+    @Modifying
+    @Query("update DbNote n set n.syncVersion = :version where n.id in :ids")
+    int stampSyncVersion(@Param("ids") Collection<Long> ids, @Param("version") long version);
+
+    // --- Backfill of the bin roots: notes binned before the flag existed, recognised by their batch ---
+
+    @Query("select n.id from DbNote n left join n.folder f where n.deleted = true and n.binRoot = false " +
+            "and (f is null or n.deletionBatch is null or f.deletionBatch is null or f.deletionBatch <> n.deletionBatch)")
+    List<Long> findUnmarkedBinRoots();
+
+    @Modifying
+    @Query("update DbNote n set n.binRoot = true where n.id in :ids")
+    int markBinRoots(@Param("ids") Collection<Long> ids);
+
+    // --- Bin cleanup: ids only, deleted in chunks without loading the notes ---
+    // shard = user id modulo the number of shards; notes without an owner belong to shard 0
+    @Query("select n.id as id, n.user.id as userId from DbNote n " +
+            "where n.deleted = true and n.deletedAt < :threshold " +
+            "and (mod(n.user.id, :shards) = :shard or (n.user is null and :shard = 0)) order by n.id")
+    List<ExpiredNoteView> findExpired(@Param("threshold") LocalDateTime threshold,
+                                      @Param("shard") int shard, @Param("shards") int shards, Pageable page);
+
+    // notes stored in a folder or anywhere below it, whatever their bin state (purge of a folder)
+    @Query("select n.id from DbNote n join n.folder f " +
+            "where f.id = :folderId or (f.user.id = :userId and f.path like concat(:prefix, '%')) order by n.id")
+    List<Long> findIdsInSubtree(@Param("userId") Long userId, @Param("folderId") Long folderId,
+                                @Param("prefix") String prefix, Pageable page);
+}
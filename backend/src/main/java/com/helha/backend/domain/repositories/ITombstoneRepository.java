@@ -0,0 +1,22 @@
+package com.helha.backend.domain.repositories;
+
+import com.helha.backend.domain.models.DbTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ITombstoneRepository extends JpaRepository<DbTombstone, Long> {
+
+    List<DbTombstone> findByUserIdAndSyncVersionGreaterThanOrderBySyncVersion(Long userId, long since);
+
+    // tombstones past their retention, one chunk of a shard of users
+    @Query("select t.id from DbTombstone t where t.deletedAt < :threshold and mod(t.userId, :shards) = :shard order by t.id")
+    List<Long> findExpiredIds(@Param("threshold") LocalDateTime threshold, @Param("shard") int shard,
+                              @Param("shards") int shards, Pageable pageable);
+}
@@ -1,9 +1,39 @@
 package com.helha.backend.domain.repositories;
 
 import com.helha.backend.domain.models.DbUser;
+import com.helha.backend.domain.repositories.projections.UserSyncView;
+import com.helha.backend.domain.repositories.projections.UserVersionView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface IUserRepository extends JpaRepository<DbUser, Long> {
     Optional<DbUser> findByUsername(String username);
-}
\ No newline at end of file
+
+    // single lookup on the primary key, used to answer 304 Not Modified
+    @Query("select u.id as id, u.treeVersion as treeVersion from DbUser u where u.id = :userId")
+    Optional<UserVersionView> findVersionById(@Param("userId") Long userId);
+
+    @Query("select u.treeVersion from DbUser u where u.id = :userId")
+    long findTreeVersionById(@Param("userId") Long userId);
+
+    @Query("select u.treeVersion as treeVersion, u.syncHorizon as syncHorizon from DbUser u where u.id = :userId")
+    UserSyncView findSyncStateById(@Param("userId") Long userId);
+
+    // before pruning the tombstones deleted before the threshold: the horizon of their users moves past them
+    @Modifying
+    @Query("update DbUser u set u.syncHorizon = " +
+            "(select max(t.syncVersion) from DbTombstone t where t.userId = u.id and t.deletedAt < :threshold) " +
+            "where mod(u.id, :shards) = :shard " +
+            "and exists (select t.id from DbTombstone t where t.userId = u.id and t.deletedAt < :threshold)")
+    int raiseSyncHorizon(@Param("threshold") LocalDateTime threshold, @Param("shard") int shard, @Param("shards") int shards);
+
+    // also locks the user row until the end of the transaction, so the mutations of a user are serialized
+    @Modifying
+    @Query("update DbUser u set u.treeVersion = u.treeVersion + 1 where u.id = :userId")
+    int incrementTreeVersion(@Param("userId") Long userId);
+}
@@ -0,0 +1,11 @@
+package com.helha.backend.domain.repositories.projections;
+
+import java.time.LocalDateTime;
+
+// folder of the bin, without its content
+public interface BinFolderView {
+    Long getId();
+    String getName();
+    Long getParentId();
+    LocalDateTime getDeletedAt();
+}
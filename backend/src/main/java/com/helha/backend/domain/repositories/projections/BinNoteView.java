@@ -0,0 +1,12 @@
+package com.helha.backend.domain.repositories.projections;
+
+import java.time.LocalDateTime;
+
+// note of the bin, without its content
+public interface BinNoteView {
+    Long getId();
+    String getTitle();
+    Long getFolderId();
+    LocalDateTime getDeletedAt();
+    long getSizeInBytes();
+}
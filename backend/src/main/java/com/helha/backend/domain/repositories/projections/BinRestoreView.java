@@ -0,0 +1,12 @@
+package com.helha.backend.domain.repositories.projections;
+
+// folder picked for a bulk restore, with its deletion batch and the state of its parent
+public interface BinRestoreView {
+    Long getId();
+    String getDeletionBatch();
+    boolean isBinRoot();
+    Long getParentId();
+    // null at the root level
+    Boolean getParentDeleted();
+    String getParentBatch();
+}
@@ -0,0 +1,14 @@
+package com.helha.backend.domain.repositories.projections;
+
+// folder to purge from the bin, with what is needed to find its subtree (bin cleanup, emptying the bin)
+public interface ExpiredFolderView {
+    Long getId();
+    Long getUserId();
+    String getPath();
+    int getDepth();
+
+    // same as DbFolder.getSubtreePrefix()
+    default String getSubtreePrefix() {
+        return getPath() + getId() + "/";
+    }
+}
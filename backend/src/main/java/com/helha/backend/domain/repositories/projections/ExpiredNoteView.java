@@ -0,0 +1,8 @@
+package com.helha.backend.domain.repositories.projections;
+
+// note past the bin retention (bin cleanup)
+public interface ExpiredNoteView {
+    Long getId();
+    // null for a note created before the accounts existed
+    Long getUserId();
+}
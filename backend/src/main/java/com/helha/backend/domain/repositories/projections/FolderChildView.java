@@ -0,0 +1,9 @@
+package com.helha.backend.domain.repositories.projections;
+
+// direct sub-folder of a folder, with a flag telling whether it can be expanded
+public interface FolderChildView {
+    Long getId();
+    String getName();
+    Long getParentId();
+    Boolean getHasChildren();
+}
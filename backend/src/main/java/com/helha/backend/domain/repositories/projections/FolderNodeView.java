@@ -0,0 +1,9 @@
+package com.helha.backend.domain.repositories.projections;
+
+// flat view of a folder row, used to rebuild the tree in memory (no lazy collections)
+public interface FolderNodeView {
+    Long getId();
+    String getName();
+    // null for a root folder
+    Long getParentId();
+}
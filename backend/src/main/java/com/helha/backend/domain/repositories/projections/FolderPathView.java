@@ -0,0 +1,10 @@
+package com.helha.backend.domain.repositories.projections;
+
+// position of a folder in the hierarchy (materialised path backfill)
+public interface FolderPathView {
+    Long getId();
+    // null for a root folder
+    Long getParentId();
+    // null for a row created before the path column existed
+    String getPath();
+}
@@ -0,0 +1,13 @@
+package com.helha.backend.domain.repositories.projections;
+
+import java.time.LocalDateTime;
+
+// folder row changed since a version (delta sync)
+public interface FolderSyncView {
+    Long getId();
+    String getName();
+    Long getParentId();
+    boolean isDeleted();
+    LocalDateTime getDeletedAt();
+    long getSyncVersion();
+}
@@ -0,0 +1,10 @@
+package com.helha.backend.domain.repositories.projections;
+
+// what the ZIP export needs from a note (read in bounded batches)
+public interface NoteExportView {
+    Long getId();
+    String getTitle();
+    // null for a note at the root
+    Long getFolderId();
+    String getContent();
+}
@@ -0,0 +1,16 @@
+package com.helha.backend.domain.repositories.projections;
+
+import java.time.LocalDateTime;
+
+// note without its markdown content (the TEXT column is never selected)
+public interface NoteHeaderView {
+    Long getId();
+    String getTitle();
+    Long getFolderId();
+    LocalDateTime getUpdatedAt();
+
+    int getWordCount();
+    int getLineCount();
+    int getCharacterCount();
+    long getSizeInBytes();
+}
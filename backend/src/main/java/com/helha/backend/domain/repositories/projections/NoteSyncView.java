@@ -0,0 +1,10 @@
+package com.helha.backend.domain.repositories.projections;
+
+import java.time.LocalDateTime;
+
+// note row changed since a version (delta sync), without its content
+public interface NoteSyncView extends NoteHeaderView {
+    boolean isDeleted();
+    LocalDateTime getDeletedAt();
+    long getSyncVersion();
+}
@@ -0,0 +1,7 @@
+package com.helha.backend.domain.repositories.projections;
+
+// current tree version of a user and the oldest version a delta sync can start from
+public interface UserSyncView {
+    long getTreeVersion();
+    long getSyncHorizon();
+}
@@ -0,0 +1,7 @@
+package com.helha.backend.domain.repositories.projections;
+
+// id and tree version of a user, read without loading the DbUser entity
+public interface UserVersionView {
+    Long getId();
+    long getTreeVersion();
+}
@@ -0,0 +1,89 @@
+package com.helha.backend.domain.service;
+
+/**
+ * Computes the metadata of a note (words, lines, characters, UTF-8 size) in a single pass
+ * over the String, without regex, split arrays or byte copies.
+ * The results are those of the former MetadataUtils:
+ * - words: trim().split("\\s+").length
+ * - lines: split("\r\n|\r|\n").length (trailing empty lines are not counted)
+ * - characters: length() (UTF-16 units)
+ * - size: getBytes(UTF_8).length (an unpaired surrogate is encoded as '?', 1 byte)
+ */
+public final class MetadataScanner {
+
+    private MetadataScanner() {
+    }
+
+    public static NoteMetadata scan(String content) {
+        if (content == null || content.isEmpty()) return NoteMetadata.EMPTY;
+
+        int length = content.length();
+        long bytes = 0;
+
+        // words: 1 + number of whitespace runs between the first and the last char > ' ' (the trim() range)
+        boolean seenStrong = false;
+        int committedRuns = 0;
+        int pendingRuns = 0;
+        boolean inRun = false;
+
+        // lines: index of the current segment, and number of segments up to the last non-empty one
+        int segment = 0;
+        int lines = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = content.charAt(i);
+
+            // --- UTF-8 size ---
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(content.charAt(i + 1))) {
+                // a valid pair is one 4-byte code point, counted on its high half
+                bytes += 4;
+            } else if (Character.isLowSurrogate(c) && i > 0 && Character.isHighSurrogate(content.charAt(i - 1))) {
+                // second half of a pair already counted
+            } else if (Character.isSurrogate(c)) {
+                bytes += 1;
+            } else {
+                bytes += 3;
+            }
+
+            // --- words ---
+            if (c > ' ') {
+                if (seenStrong) committedRuns += pendingRuns;
+                pendingRuns = 0;
+                seenStrong = true;
+                inRun = false;
+            } else if (isRegexSpace(c)) {
+                if (seenStrong && !inRun) pendingRuns++;
+                inRun = true;
+            } else {
+                // control char below ' ' that is not \s: trimmed at the edges, part of a word inside
+                inRun = false;
+            }
+
+            // --- lines ---
+            if (c == '\n') {
+                segment++;
+            } else if (c == '\r') {
+                if (i + 1 < length && content.charAt(i + 1) == '\n') {
+                    // "\r\n" is a single separator; its '\n' extends the whitespace run of the '\r'
+                    bytes += 1;
+                    i++;
+                }
+                segment++;
+            } else {
+                lines = segment + 1;
+            }
+        }
+
+        int words = seenStrong ? committedRuns + 1 : 0;
+        return new NoteMetadata(words, lines, length, bytes);
+    }
+
+    // the \s class of java.util.regex: [ \t\n\x0B\f\r]
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
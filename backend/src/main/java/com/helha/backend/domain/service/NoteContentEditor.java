@@ -0,0 +1,173 @@
+package com.helha.backend.domain.service;
+
+/**
+ * Applies text edits to a note content and keeps its metadata up to date from the edited
+ * ranges only, with the same results as {@link MetadataScanner#scan(String)} on the whole text.
+ *
+ * Every counter is written as a sum of per-position contributions that depend on the
+ * position and its direct neighbours, plus a correction at the edges of the text:
+ * - size: UTF-8 bytes of each char (a surrogate pair needs both neighbours)
+ * - words: starts of non-whitespace runs, minus the runs made of control chars only that
+ *   trim() removes before the first / after the last visible char
+ * - lines: line separators ("\r\n" counts once), minus the trailing ones split() drops
+ * An edit only changes the contributions of [offset - 1, offset + deleteLength + 1), and the
+ * edge corrections only read the leading/trailing blanks of the text.
+ */
+public final class NoteContentEditor {
+
+    private final StringBuilder content;
+    private NoteMetadata metadata;
+    // the counters cannot be derived from the metadata (blank text, stale stats): recount at the end
+    private boolean recount;
+
+    public NoteContentEditor(String content, NoteMetadata metadata) {
+        this.content = new StringBuilder(content == null ? "" : content);
+        this.metadata = metadata;
+        this.recount = !isIncremental(metadata, this.content);
+    }
+
+    // replaces deleteLength chars at offset with text (offsets in UTF-16 units, like String)
+    public void apply(int offset, int deleteLength, String text) {
+        String inserted = text == null ? "" : text;
+        int length = content.length();
+        if (offset < 0 || deleteLength < 0 || offset > length || deleteLength > length - offset) {
+            throw new IllegalArgumentException("Edit [" + offset + ", +" + deleteLength + "] is outside a content of "
+                    + length + " characters");
+        }
+        if (recount) {
+            content.replace(offset, offset + deleteLength, inserted);
+            return;
+        }
+
+        int from = Math.max(0, offset - 1);
+        Counters before = new Counters();
+        before.add(content, from, Math.min(length, offset + deleteLength + 1));
+        long runsBefore = metadata.wordCount() + leadingBlankRuns(content) + trailingBlankRuns(content);
+        long separatorsBefore = metadata.lineCount() - 1 + trailingSeparators(content);
+
+        content.replace(offset, offset + deleteLength, inserted);
+
+        Counters after = new Counters();
+        after.add(content, from, Math.min(content.length(), offset + inserted.length() + 1));
+
+        long bytes = metadata.sizeInBytes() - before.bytes + after.bytes;
+        long runs = runsBefore - before.runStarts + after.runStarts;
+        long separators = separatorsBefore - before.separators + after.separators;
+
+        int words = hasVisibleChar(content) ? (int) (runs - leadingBlankRuns(content) - trailingBlankRuns(content)) : 0;
+        int trailing = trailingSeparators(content);
+        int lines = trailingRunLength(content) == content.length() ? 0 : (int) (separators - trailing + 1);
+
+        metadata = new NoteMetadata(words, lines, content.length(), bytes);
+        recount = !isIncremental(metadata, content);
+    }
+
+    public String getContent() {
+        return content.toString();
+    }
+
+    public NoteMetadata getMetadata() {
+        return recount ? MetadataScanner.scan(content.toString()) : metadata;
+    }
+
+    // the edge corrections need a visible char and a non-separator char to anchor on
+    private static boolean isIncremental(NoteMetadata metadata, CharSequence content) {
+        return metadata != null
+                && metadata.characterCount() == content.length()
+                && metadata.wordCount() > 0
+                && metadata.lineCount() > 0;
+    }
+
+    // --- Per-position contributions ---
+
+    private static final class Counters {
+        long bytes;
+        long runStarts;
+        long separators;
+
+        void add(CharSequence s, int from, int to) {
+            for (int i = from; i < to; i++) {
+                bytes += utf8Bytes(s, i);
+                if (isRunStart(s, i)) runStarts++;
+                if (isSeparator(s, i)) separators++;
+            }
+        }
+    }
+
+    // bytes of the char at i in the UTF-8 form of the whole text
+    private static int utf8Bytes(CharSequence s, int i) {
+        char c = s.charAt(i);
+        if (c < 0x80) return 1;
+        if (c < 0x800) return 2;
+        if (Character.isHighSurrogate(c)) {
+            return i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1)) ? 4 : 1;
+        }
+        if (Character.isLowSurrogate(c)) {
+            return i > 0 && Character.isHighSurrogate(s.charAt(i - 1)) ? 0 : 1;
+        }
+        return 3;
+    }
+
+    // first char of a run of non-whitespace chars (a token of split("\\s+"))
+    private static boolean isRunStart(CharSequence s, int i) {
+        return !isRegexSpace(s.charAt(i)) && (i == 0 || isRegexSpace(s.charAt(i - 1)));
+    }
+
+    // '\n', or a '\r' that is not the first half of "\r\n"
+    private static boolean isSeparator(CharSequence s, int i) {
+        char c = s.charAt(i);
+        if (c == '\n') return true;
+        return c == '\r' && (i + 1 == s.length() || s.charAt(i + 1) != '\n');
+    }
+
+    // --- Edge corrections (only read the blanks at both ends) ---
+
+    private static boolean hasVisibleChar(CharSequence s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > ' ') return true;
+        }
+        return false;
+    }
+
+    // runs of control chars before the first visible char, removed by trim()
+    private static int leadingBlankRuns(CharSequence s) {
+        int runs = 0;
+        int i = 0;
+        while (i < s.length() && s.charAt(i) <= ' ') {
+            if (isRunStart(s, i)) runs++;
+            i++;
+        }
+        // a run glued to the first visible char belongs to its word
+        if (i > 0 && i < s.length() && !isRegexSpace(s.charAt(i - 1))) runs--;
+        return runs;
+    }
+
+    // runs of control chars after the last visible char, removed by trim()
+    private static int trailingBlankRuns(CharSequence s) {
+        int runs = 0;
+        for (int i = s.length() - 1; i >= 0 && s.charAt(i) <= ' '; i--) {
+            if (isRunStart(s, i)) runs++;
+        }
+        return runs;
+    }
+
+    // separators after the last non-separator char, dropped by split()
+    private static int trailingSeparators(CharSequence s) {
+        int separators = 0;
+        for (int i = s.length() - trailingRunLength(s); i < s.length(); i++) {
+            if (isSeparator(s, i)) separators++;
+        }
+        return separators;
+    }
+
+    private static int trailingRunLength(CharSequence s) {
+        int i = s.length();
+        while (i > 0 && (s.charAt(i - 1) == '\n' || s.charAt(i - 1) == '\r')) i--;
+        return s.length() - i;
+    }
+
+    // the \s class of java.util.regex: [ \t\n\x0B\f\r]
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,7 @@
+package com.helha.backend.domain.service;
+
+// statistics of a note content (see MetadataScanner)
+public record NoteMetadata(int wordCount, int lineCount, int characterCount, long sizeInBytes) {
+
+    public static final NoteMetadata EMPTY = new NoteMetadata(0, 0, 0, 0);
+}
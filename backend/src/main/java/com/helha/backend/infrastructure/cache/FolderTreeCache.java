@@ -0,0 +1,64 @@
+package com.helha.backend.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.helha.backend.application.dto.FolderDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * In-process cache of the assembled folder tree of each user.
+ * Size bounded with a TTL, and exposed as "cache.*" metrics (name=folderTree)
+ * so the hit ratio and the evictions can be followed on /actuator/metrics.
+ * Entries are keyed by (user, tree version): a tree built before a mutation can never be
+ * served after it, and {@link #invalidate(Long, long)} only frees the memory of the old version.
+ */
+@Component
+public class FolderTreeCache {
+
+    public static final String CACHE_NAME = "folderTree";
+
+    private final Cache<TreeKey, List<FolderDto>> cache;
+
+    public FolderTreeCache(MeterRegistry meterRegistry,
+                           @Value("${app.tree-cache.maximum-size:10000}") long maximumSize,
+                           @Value("${app.tree-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    // returns the cached tree of the user at this version, or builds and stores it
+    public List<FolderDto> get(Long userId, long version, Function<Long, List<FolderDto>> loader) {
+        return cache.get(new TreeKey(userId, version), key -> loader.apply(key.userId()));
+    }
+
+    // drops the tree of an outdated version once the current transaction is committed
+    public void invalidate(Long userId, long version) {
+        TreeKey key = new TreeKey(userId, version);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(key);
+                }
+            });
+        } else {
+            cache.invalidate(key);
+        }
+    }
+
+    private record TreeKey(Long userId, long version) {
+    }
+}
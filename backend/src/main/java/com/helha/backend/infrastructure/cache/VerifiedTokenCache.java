@@ -0,0 +1,86 @@
+package com.helha.backend.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.helha.backend.infrastructure.security.VerifiedToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * In-process cache of the JWTs verified recently, so the requests of a session check the HMAC
+ * signature and parse the claims once instead of on every call.
+ * Keyed by the SHA-256 of the token (the tokens themselves are not kept in memory). Each entry
+ * expires with its token, so an expired token is never accepted from the cache; invalid tokens
+ * are not cached. Size bounded, and exposed as "cache.*" metrics (name=verifiedTokens).
+ */
+@Component
+public class VerifiedTokenCache {
+
+    public static final String CACHE_NAME = "verifiedTokens";
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(MeterRegistry meterRegistry,
+                              @Value("${app.token-cache.maximum-size:10000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    // the verified token from the cache, or checked by the verifier and stored when valid
+    public Optional<VerifiedToken> get(String token, Function<String, Optional<VerifiedToken>> verifier) {
+        String key = sha256(token);
+        VerifiedToken cached = cache.getIfPresent(key);
+        if (cached != null) return Optional.of(cached);
+
+        Optional<VerifiedToken> verified = verifier.apply(token);
+        // a token without expiration is checked every time
+        verified.filter(v -> v.expiresAt() != null).ifPresent(v -> cache.put(key, v));
+        return verified;
+    }
+
+    private static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // an entry lives until the "exp" of its token, reads do not extend it
+    private static final class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            Duration left = Duration.between(Instant.now(), value.expiresAt());
+            if (left.isNegative()) return 0;
+            // saturated: Caffeine reads Long.MAX_VALUE as "never"
+            return left.getSeconds() >= Long.MAX_VALUE / 1_000_000_000L ? Long.MAX_VALUE : left.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.helha.backend.infrastructure.export;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background export of the notes of a user into a ZIP file on local disk.
+ * Written by the worker thread, read by the status requests: the state is volatile/atomic.
+ */
+@Getter
+public class ExportJob {
+
+    public enum Status { PENDING, RUNNING, DONE, FAILED }
+
+    private final String id;
+    private final Long userId;
+    // tree version the archive was built from: the file is reused as long as the tree has not changed
+    private final long treeVersion;
+    private final Path file;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private volatile Status status = Status.PENDING;
+    private volatile long totalNotes;
+    private final AtomicLong readNotes = new AtomicLong();
+    private volatile long sizeInBytes;
+    private volatile LocalDateTime expiresAt;
+
+    public ExportJob(String id, Long userId, long treeVersion, Path file) {
+        this.id = id;
+        this.userId = userId;
+        this.treeVersion = treeVersion;
+        this.file = file;
+    }
+
+    public void start(long totalNotes) {
+        this.totalNotes = totalNotes;
+        this.status = Status.RUNNING;
+    }
+
+    public void noteRead() {
+        readNotes.incrementAndGet();
+    }
+
+    public void done(long sizeInBytes, LocalDateTime expiresAt) {
+        this.sizeInBytes = sizeInBytes;
+        this.expiresAt = expiresAt;
+        this.status = Status.DONE;
+    }
+
+    public void failed(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+        this.status = Status.FAILED;
+    }
+
+    // 0..100, 100 only once the file is complete
+    public int getProgress() {
+        if (status == Status.DONE) return 100;
+        long total = totalNotes;
+        if (total == 0) return 0;
+        return (int) Math.min(99, readNotes.get() * 100 / total);
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        LocalDateTime expiry = expiresAt;
+        return expiry != null && expiry.isBefore(now);
+    }
+
+    public long getReadNotes() {
+        return readNotes.get();
+    }
+}
@@ -0,0 +1,269 @@
+package com.helha.backend.infrastructure.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * ZIP writer that deflates the entries on a worker pool and writes them in the order they were added.
+ * At most maxInFlight entries are queued or being compressed, so the memory stays bounded.
+ * The output is deterministic: fixed timestamps (1980-01-01), UTF-8 names, sizes and CRC in the
+ * local headers (no data descriptors). ZIP64 records are added when the archive needs them
+ * (more than 65535 entries, or offsets above 4 GB).
+ */
+public class ParallelZipWriter implements Closeable {
+
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY = 0x06064b50;
+    private static final int ZIP64_LOCATOR = 0x07064b50;
+    private static final int ZIP64_EXTRA = 0x0001;
+
+    private static final int VERSION_DEFAULT = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final int FLAG_UTF8_NAMES = 0x0800;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+    // 1980-01-01 00:00:00, the first MS-DOS date
+    private static final int DOS_TIME = 0;
+    private static final int DOS_DATE = (1 << 5) | 1;
+    private static final int DIRECTORY_ATTRIBUTE = 0x10;
+
+    private static final long ZIP32_LIMIT = 0xFFFFFFFFL;
+    private static final int ENTRY_LIMIT = 0xFFFF;
+
+    private final OutputStream out;
+    private final ExecutorService pool;
+    private final int maxInFlight;
+    private final int level;
+
+    private final ArrayDeque<Future<Entry>> pending = new ArrayDeque<>();
+    private final List<Entry> written = new ArrayList<>();
+    private final ByteBuffer header = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+    private long offset;
+    private boolean finished;
+
+    public ParallelZipWriter(OutputStream out, ExecutorService pool, int maxInFlight, int level) {
+        this.out = out;
+        this.pool = pool;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.level = level;
+    }
+
+    // name must end with "/"
+    public void addDirectory(String name) throws IOException {
+        enqueue(CompletableFuture.completedFuture(
+                new Entry(name.getBytes(StandardCharsets.UTF_8), STORED, 0, 0, new byte[0], true)));
+    }
+
+    public void addFile(String name, byte[] data) throws IOException {
+        int compressionLevel = level;
+        enqueue(pool.submit(() -> compress(name.getBytes(StandardCharsets.UTF_8), data, compressionLevel)));
+    }
+
+    // writes the pending entries, then the central directory. The underlying stream is left open.
+    public void finish() throws IOException {
+        if (finished) return;
+        while (!pending.isEmpty()) writeNext();
+        writeCentralDirectory();
+        out.flush();
+        finished = true;
+    }
+
+    // abandons the entries still being compressed (error while exporting)
+    @Override
+    public void close() {
+        for (Future<Entry> future : pending) future.cancel(true);
+        pending.clear();
+    }
+
+    private void enqueue(Future<Entry> future) throws IOException {
+        if (finished) throw new IllegalStateException("The archive is already finished");
+        pending.add(future);
+        while (pending.size() > maxInFlight) writeNext();
+    }
+
+    // --- Compression (worker threads) ---
+
+    // one deflater per worker thread, reset between entries (creating one per entry costs native allocations)
+    private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[64 * 1024]);
+
+    static Entry compress(byte[] name, byte[] data, int level) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+
+        Deflater deflater = DEFLATERS.get();
+        deflater.reset();
+        deflater.setLevel(level);
+        deflater.setInput(data);
+        deflater.finish();
+        byte[] buffer = BUFFERS.get();
+        ByteArrayOutputStream compressed = null;
+        int length = 0;
+        while (!deflater.finished()) {
+            int count = deflater.deflate(buffer, length, buffer.length - length);
+            length += count;
+            if (length == buffer.length) {
+                // larger than the thread buffer: spill to a growing stream
+                if (compressed == null) compressed = new ByteArrayOutputStream(data.length / 2 + buffer.length);
+                compressed.write(buffer, 0, length);
+                length = 0;
+            }
+        }
+        if (compressed != null) compressed.write(buffer, 0, length);
+        int size = compressed != null ? compressed.size() : length;
+
+        // incompressible data (already compressed, tiny files): stored as is
+        if (size >= data.length) {
+            return new Entry(name, STORED, crc.getValue(), data.length, data, false);
+        }
+        byte[] bytes = compressed != null ? compressed.toByteArray() : Arrays.copyOf(buffer, length);
+        return new Entry(name, DEFLATED, crc.getValue(), data.length, bytes, false);
+    }
+
+    // --- Writing (caller thread, in order) ---
+
+    private void writeNext() throws IOException {
+        Entry entry;
+        try {
+            entry = pending.removeFirst().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compressing the archive", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Compression of a ZIP entry failed", e.getCause());
+        }
+
+        entry.offset = offset;
+        header.clear();
+        header.putInt(LOCAL_HEADER)
+                .putShort((short) VERSION_DEFAULT)
+                .putShort((short) FLAG_UTF8_NAMES)
+                .putShort((short) entry.method)
+                .putShort((short) DOS_TIME)
+                .putShort((short) DOS_DATE)
+                .putInt((int) entry.crc)
+                .putInt(entry.data.length)
+                .putInt((int) entry.size)
+                .putShort((short) entry.name.length)
+                .putShort((short) 0);
+        out.write(header.array(), 0, header.position());
+        out.write(entry.name);
+        out.write(entry.data);
+        offset += header.position() + entry.name.length + entry.data.length;
+
+        entry.compressedSize = entry.data.length;
+        entry.data = null; // only the central directory record is kept
+        written.add(entry);
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        long start = offset;
+        for (Entry entry : written) {
+            boolean zip64 = entry.offset >= ZIP32_LIMIT;
+            header.clear();
+            header.putInt(CENTRAL_HEADER)
+                    .putShort((short) VERSION_ZIP64)
+                    .putShort((short) (zip64 ? VERSION_ZIP64 : VERSION_DEFAULT))
+                    .putShort((short) FLAG_UTF8_NAMES)
+                    .putShort((short) entry.method)
+                    .putShort((short) DOS_TIME)
+                    .putShort((short) DOS_DATE)
+                    .putInt((int) entry.crc)
+                    .putInt((int) entry.compressedSize)
+                    .putInt((int) entry.size)
+                    .putShort((short) entry.name.length)
+                    .putShort((short) (zip64 ? 12 : 0))
+                    .putShort((short) 0)  // comment
+                    .putShort((short) 0)  // disk
+                    .putShort((short) 0)  // internal attributes
+                    .putInt(entry.directory ? DIRECTORY_ATTRIBUTE : 0)
+                    .putInt((int) (zip64 ? ZIP32_LIMIT : entry.offset));
+            out.write(header.array(), 0, header.position());
+            out.write(entry.name);
+            offset += header.position() + entry.name.length;
+            if (zip64) {
+                header.clear();
+                header.putShort((short) ZIP64_EXTRA).putShort((short) 8).putLong(entry.offset);
+                out.write(header.array(), 0, header.position());
+                offset += header.position();
+            }
+        }
+        long size = offset - start;
+        int count = written.size();
+
+        boolean zip64 = count > ENTRY_LIMIT || start >= ZIP32_LIMIT || size >= ZIP32_LIMIT;
+        if (zip64) {
+            long zip64End = offset;
+            header.clear();
+            header.putInt(ZIP64_END_OF_CENTRAL_DIRECTORY)
+                    .putLong(44)  // size of the rest of this record
+                    .putShort((short) VERSION_ZIP64)
+                    .putShort((short) VERSION_ZIP64)
+                    .putInt(0)    // this disk
+                    .putInt(0)    // disk of the central directory
+                    .putLong(count)
+                    .putLong(count)
+                    .putLong(size)
+                    .putLong(start);
+            out.write(header.array(), 0, header.position());
+            offset += header.position();
+
+            header.clear();
+            header.putInt(ZIP64_LOCATOR)
+                    .putInt(0)
+                    .putLong(zip64End)
+                    .putInt(1);   // total number of disks
+            out.write(header.array(), 0, header.position());
+            offset += header.position();
+        }
+
+        header.clear();
+        header.putInt(END_OF_CENTRAL_DIRECTORY)
+                .putShort((short) 0)
+                .putShort((short) 0)
+                .putShort((short) Math.min(count, ENTRY_LIMIT))
+                .putShort((short) Math.min(count, ENTRY_LIMIT))
+                .putInt((int) Math.min(size, ZIP32_LIMIT))
+                .putInt((int) Math.min(start, ZIP32_LIMIT))
+                .putShort((short) 0); // comment
+        out.write(header.array(), 0, header.position());
+        offset += header.position();
+    }
+
+    static final class Entry {
+        final byte[] name;
+        final int method;
+        final long crc;
+        final long size;
+        final boolean directory;
+        byte[] data;
+        long compressedSize;
+        long offset;
+
+        Entry(byte[] name, int method, long crc, long size, byte[] data, boolean directory) {
+            this.name = name;
+            this.method = method;
+            this.crc = crc;
+            this.size = size;
+            this.data = data;
+            this.directory = directory;
+        }
+    }
+}
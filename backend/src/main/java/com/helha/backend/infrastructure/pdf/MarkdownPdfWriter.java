@@ -0,0 +1,351 @@
+package com.helha.backend.infrastructure.pdf;
+
+import com.lowagie.text.Chunk;
+import com.lowagie.text.Document;
+import com.lowagie.text.Element;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.ColumnText;
+import com.lowagie.text.pdf.PdfDestination;
+import com.lowagie.text.pdf.PdfOutline;
+import com.lowagie.text.pdf.PdfPageEventHelper;
+import com.lowagie.text.pdf.PdfWriter;
+import com.lowagie.text.pdf.draw.LineSeparator;
+
+import java.io.Closeable;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Writes markdown notes into a PDF, section by section, straight to an output stream.
+ * The markdown is read line by line and every block is handed to OpenPDF as soon as it ends:
+ * a finished page is written out and released, so the memory depends on the current page only.
+ * Each section gets a bookmark, nested under its parent section.
+ *
+ * Supported: headings, paragraphs (hard breaks with two trailing spaces), bullet and ordered
+ * lists, quotes, fenced code blocks, horizontal rules, **bold**, *italic*, `code`, [links](url).
+ * Tables are kept as monospace text. One writer per document, not thread-safe.
+ */
+public class MarkdownPdfWriter implements Closeable {
+
+    private static final float MARGIN = 56f;
+    private static final float LEADING = 1.35f;
+    private static final float INDENT = 16f;
+
+    private static final Pattern HEADING = Pattern.compile("(#{1,6})\\s+(.*?)(\\s+#+)?\\s*");
+    private static final Pattern RULE = Pattern.compile("([-*_])(\\s*\\1){2,}\\s*");
+    private static final Pattern BULLET = Pattern.compile("([-*+])\\s+(.*)");
+    private static final Pattern ORDERED = Pattern.compile("(\\d{1,9})[.)]\\s+(.*)");
+    private static final Pattern TABLE_SEPARATOR = Pattern.compile("\\|?(\\s*:?-+:?\\s*\\|)+\\s*:?-*:?\\s*");
+
+    // a bookmark level of the document (a folder, a note)
+    public static final class Section {
+        private final Section parent;
+        private final String title;
+        private PdfOutline outline;
+
+        private Section(Section parent, String title) {
+            this.parent = parent;
+            this.title = title;
+        }
+    }
+
+    private final PdfStyles styles;
+    private final Document document;
+    private final PdfWriter writer;
+    // bookmarks waiting for their heading to be laid out (generic tag -> section)
+    private final Map<String, Section> pendingBookmarks = new HashMap<>();
+    private int tags;
+    private boolean empty = true;
+
+    // state of the markdown block being read
+    private final StringBuilder paragraph = new StringBuilder();
+    private String codeFence;
+
+    public MarkdownPdfWriter(OutputStream out, PdfStyles styles, String title) {
+        this.styles = styles;
+        this.document = new Document(PageSize.A4, MARGIN, MARGIN, MARGIN, MARGIN);
+        this.writer = PdfWriter.getInstance(document, out);
+        // the servlet container owns the response stream
+        writer.setCloseStream(false);
+        writer.setFullCompression();
+        writer.setViewerPreferences(PdfWriter.PageModeUseOutlines);
+        writer.setPageEvent(new PageEvents());
+        document.addTitle(title);
+        document.addCreator("Spooky Notes");
+        document.open();
+    }
+
+    // starts a section: title, bookmark, and a new page unless the current one is still empty
+    public Section beginSection(Section parent, String title, int level, boolean newPage) {
+        if (newPage) document.newPage();
+        Section section = new Section(parent, title == null || title.isBlank() ? "Sans titre" : title);
+        String tag = "s" + (tags++);
+        pendingBookmarks.put(tag, section);
+
+        Chunk chunk = new Chunk(section.title, styles.heading(level));
+        chunk.setGenericTag(tag);
+        Paragraph heading = new Paragraph(chunk);
+        heading.setLeading(0, 1.2f);
+        heading.setSpacingBefore(level <= 1 ? 0 : 12);
+        heading.setSpacingAfter(4);
+        add(heading);
+        add(rule());
+        return section;
+    }
+
+    // markdown content of the current section
+    public void writeMarkdown(String markdown) {
+        if (markdown == null) return;
+        int length = markdown.length();
+        int start = 0;
+        while (start <= length) {
+            int end = markdown.indexOf('\n', start);
+            if (end < 0) end = length;
+            int lineEnd = end > start && markdown.charAt(end - 1) == '\r' ? end - 1 : end;
+            line(markdown.substring(start, lineEnd));
+            start = end + 1;
+        }
+        flushParagraph();
+        codeFence = null;
+    }
+
+    @Override
+    public void close() {
+        flushParagraph();
+        if (empty) add(new Paragraph(" "));
+        document.close();
+    }
+
+    // --- Blocks ---
+
+    private void line(String line) {
+        String trimmed = line.strip();
+        if (codeFence != null) {
+            if (trimmed.startsWith(codeFence)) {
+                codeFence = null;
+            } else {
+                add(codeLine(line));
+            }
+            return;
+        }
+        if (trimmed.isEmpty()) {
+            flushParagraph();
+            return;
+        }
+        if (trimmed.startsWith("```") || trimmed.startsWith("~~~")) {
+            flushParagraph();
+            codeFence = trimmed.substring(0, 3);
+            return;
+        }
+
+        Matcher matcher;
+        if ((matcher = HEADING.matcher(trimmed)).matches()) {
+            flushParagraph();
+            int level = matcher.group(1).length();
+            Paragraph heading = new Paragraph(new Chunk(matcher.group(2), styles.heading(level)));
+            heading.setLeading(0, 1.2f);
+            heading.setSpacingBefore(10);
+            heading.setSpacingAfter(4);
+            add(heading);
+        } else if (RULE.matcher(trimmed).matches()) {
+            flushParagraph();
+            add(rule());
+        } else if (trimmed.startsWith(">")) {
+            flushParagraph();
+            Paragraph quote = block(trimmed.replaceFirst("^(>\\s?)+", ""), PdfStyles.QUOTE);
+            quote.setIndentationLeft(INDENT);
+            add(quote);
+        } else if ((matcher = BULLET.matcher(trimmed)).matches()) {
+            flushParagraph();
+            add(listItem("•", matcher.group(2), indentation(line)));
+        } else if ((matcher = ORDERED.matcher(trimmed)).matches()) {
+            flushParagraph();
+            add(listItem(matcher.group(1) + ".", matcher.group(2), indentation(line)));
+        } else if (trimmed.startsWith("|")) {
+            flushParagraph();
+            if (!TABLE_SEPARATOR.matcher(trimmed).matches()) add(codeLine(trimmed));
+        } else {
+            // lines of one paragraph are joined, two trailing spaces force a line break
+            if (paragraph.length() > 0) paragraph.append(paragraph.charAt(paragraph.length() - 1) == '\n' ? "" : " ");
+            paragraph.append(trimmed);
+            if (line.endsWith("  ")) paragraph.append('\n');
+        }
+    }
+
+    private void flushParagraph() {
+        if (paragraph.length() == 0) return;
+        add(block(paragraph.toString(), 0));
+        paragraph.setLength(0);
+    }
+
+    private Paragraph block(String markdown, int flags) {
+        Paragraph block = new Paragraph();
+        block.setLeading(0, LEADING);
+        block.setSpacingAfter(6);
+        appendInline(block, markdown, flags);
+        return block;
+    }
+
+    private Paragraph listItem(String marker, String markdown, int level) {
+        Paragraph item = new Paragraph();
+        item.setLeading(0, LEADING);
+        item.setSpacingAfter(2);
+        item.setIndentationLeft(INDENT * (level + 1));
+        item.setFirstLineIndent(-INDENT * 0.75f);
+        item.add(new Chunk(marker + " ", styles.inline(0)));
+        appendInline(item, markdown, 0);
+        return item;
+    }
+
+    private Paragraph codeLine(String line) {
+        String text = line.replace("\t", "    ");
+        Chunk chunk = new Chunk(text.isEmpty() ? " " : text, styles.inline(PdfStyles.CODE));
+        chunk.setBackground(PdfStyles.CODE_BACKGROUND);
+        Paragraph code = new Paragraph(chunk);
+        code.setLeading(0, 1.25f);
+        code.setIndentationLeft(8);
+        return code;
+    }
+
+    private Paragraph rule() {
+        Paragraph rule = new Paragraph(new Chunk(new LineSeparator(0.5f, 100f, PdfStyles.RULE, Element.ALIGN_CENTER, -2f)));
+        rule.setSpacingAfter(6);
+        return rule;
+    }
+
+    // nesting level of a list item: two spaces (or a tab) per level
+    private static int indentation(String line) {
+        int columns = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == ' ') columns++;
+            else if (c == '\t') columns += 4;
+            else break;
+        }
+        return Math.min(columns / 2, 6);
+    }
+
+    private void add(Element element) {
+        document.add(element);
+        empty = false;
+    }
+
+    // --- Inline markup ---
+
+    private void appendInline(Phrase target, String text, int baseFlags) {
+        StringBuilder buffer = new StringBuilder();
+        int flags = baseFlags;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+
+            if (c == '\\' && i + 1 < length && isPunctuation(text.charAt(i + 1))) {
+                buffer.append(text.charAt(i + 1));
+                i += 2;
+                continue;
+            }
+            if (c == '`') {
+                int close = text.indexOf('`', i + 1);
+                if (close > i + 1) {
+                    flush(target, buffer, flags);
+                    Chunk code = new Chunk(text.substring(i + 1, close), styles.inline(flags | PdfStyles.CODE));
+                    code.setBackground(PdfStyles.CODE_BACKGROUND);
+                    target.add(code);
+                    i = close + 1;
+                    continue;
+                }
+            }
+            if ((c == '*' || c == '_') && i + 1 < length && text.charAt(i + 1) == c) {
+                String marker = c == '*' ? "**" : "__";
+                if ((flags & PdfStyles.BOLD) != 0 || text.indexOf(marker, i + 2) > 0) {
+                    flush(target, buffer, flags);
+                    flags ^= PdfStyles.BOLD;
+                    i += 2;
+                    continue;
+                }
+            }
+            if (c == '*' || (c == '_' && isWordBoundary(text, i, flags))) {
+                if ((flags & PdfStyles.ITALIC) != 0 || text.indexOf(c, i + 1) > 0) {
+                    flush(target, buffer, flags);
+                    flags ^= PdfStyles.ITALIC;
+                    i++;
+                    continue;
+                }
+            }
+            if (c == '~' && i + 1 < length && text.charAt(i + 1) == '~') {
+                i += 2;
+                continue;
+            }
+            if (c == '[' || (c == '!' && i + 1 < length && text.charAt(i + 1) == '[')) {
+                int open = c == '!' ? i + 1 : i;
+                int middle = text.indexOf("](", open);
+                int close = middle < 0 ? -1 : text.indexOf(')', middle + 2);
+                if (close > 0) {
+                    flush(target, buffer, flags);
+                    String label = text.substring(open + 1, middle);
+                    String url = text.substring(middle + 2, close).strip();
+                    if (c == '!') {
+                        // images are not downloaded: their description stays in the text
+                        target.add(new Chunk("[" + (label.isEmpty() ? "image" : label) + "]", styles.inline(flags | PdfStyles.ITALIC)));
+                    } else {
+                        Chunk link = new Chunk(label.isEmpty() ? url : label, styles.inline(flags | PdfStyles.LINK));
+                        if (!url.isEmpty()) link.setAnchor(url);
+                        target.add(link);
+                    }
+                    i = close + 1;
+                    continue;
+                }
+            }
+            buffer.append(c);
+            i++;
+        }
+        flush(target, buffer, flags);
+    }
+
+    private void flush(Phrase target, StringBuilder buffer, int flags) {
+        if (buffer.length() == 0) return;
+        target.add(new Chunk(buffer.toString(), styles.inline(flags)));
+        buffer.setLength(0);
+    }
+
+    // snake_case stays as is: "_" only opens before a word and closes after one
+    private static boolean isWordBoundary(String text, int i, int flags) {
+        boolean closing = (flags & PdfStyles.ITALIC) != 0;
+        int neighbour = closing ? i + 1 : i - 1;
+        return neighbour < 0 || neighbour >= text.length() || !Character.isLetterOrDigit(text.charAt(neighbour));
+    }
+
+    private static boolean isPunctuation(char c) {
+        return c < 128 && !Character.isLetterOrDigit(c) && !Character.isWhitespace(c);
+    }
+
+    // --- Page events: bookmarks where the headings land, page numbers ---
+
+    private final class PageEvents extends PdfPageEventHelper {
+
+        @Override
+        public void onGenericTag(PdfWriter writer, Document document, Rectangle rect, String text) {
+            // a heading split over several lines fires once per line
+            Section section = pendingBookmarks.remove(text);
+            if (section == null) return;
+            PdfOutline parent = section.parent != null && section.parent.outline != null
+                    ? section.parent.outline : writer.getRootOutline();
+            section.outline = new PdfOutline(parent, new PdfDestination(PdfDestination.FITH, rect.getTop()),
+                    section.title, false);
+        }
+
+        @Override
+        public void onEndPage(PdfWriter writer, Document document) {
+            Phrase number = new Phrase(String.valueOf(writer.getPageNumber()), styles.inline(PdfStyles.QUOTE));
+            ColumnText.showTextAligned(writer.getDirectContent(), Element.ALIGN_CENTER, number,
+                    (document.left() + document.right()) / 2, MARGIN / 2, 0);
+        }
+    }
+}
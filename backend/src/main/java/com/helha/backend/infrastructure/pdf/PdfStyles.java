@@ -0,0 +1,71 @@
+package com.helha.backend.infrastructure.pdf;
+
+import com.lowagie.text.Font;
+import com.lowagie.text.pdf.BaseFont;
+import org.springframework.stereotype.Component;
+
+import java.awt.Color;
+import java.io.IOException;
+
+/**
+ * Fonts and colours of the PDF exports, built once and shared by every document.
+ * The fonts are never modified after construction, so concurrent exports can use them.
+ * Standard Type 1 fonts in WinAnsi (CP1252): nothing is embedded, French accents are covered.
+ */
+@Component
+public class PdfStyles {
+
+    // inline styles, combined as flags
+    public static final int BOLD = 1;
+    public static final int ITALIC = 2;
+    public static final int CODE = 4;
+    public static final int LINK = 8;
+    public static final int QUOTE = 16;
+
+    static final float BODY_SIZE = 11f;
+    static final Color TEXT = new Color(0x22, 0x22, 0x22);
+    static final Color MUTED = new Color(0x66, 0x66, 0x66);
+    static final Color LINK_COLOR = new Color(0x1A, 0x5F, 0xB4);
+    static final Color CODE_BACKGROUND = new Color(0xF2, 0xF2, 0xF2);
+    static final Color RULE = new Color(0xCC, 0xCC, 0xCC);
+
+    // sizes of the markdown headings #, ##, ... ######
+    private static final float[] HEADING_SIZES = {22f, 18f, 15f, 13f, 12f, 11f};
+
+    private final Font[] inline = new Font[32];
+    private final Font[] headings = new Font[HEADING_SIZES.length];
+
+    public PdfStyles() throws IOException {
+        BaseFont[] sans = {
+                standard(BaseFont.HELVETICA), standard(BaseFont.HELVETICA_BOLD),
+                standard(BaseFont.HELVETICA_OBLIQUE), standard(BaseFont.HELVETICA_BOLDOBLIQUE)};
+        BaseFont[] mono = {
+                standard(BaseFont.COURIER), standard(BaseFont.COURIER_BOLD),
+                standard(BaseFont.COURIER_OBLIQUE), standard(BaseFont.COURIER_BOLDOBLIQUE)};
+
+        for (int flags = 0; flags < inline.length; flags++) {
+            // a quote is always in italics
+            int style = (flags & (BOLD | ITALIC)) | ((flags & QUOTE) != 0 ? ITALIC : 0);
+            boolean code = (flags & CODE) != 0;
+            Color color = (flags & LINK) != 0 ? LINK_COLOR : (flags & QUOTE) != 0 ? MUTED : TEXT;
+            inline[flags] = new Font(code ? mono[style] : sans[style], code ? BODY_SIZE - 1 : BODY_SIZE,
+                    (flags & LINK) != 0 ? Font.UNDERLINE : Font.NORMAL, color);
+        }
+        for (int level = 0; level < HEADING_SIZES.length; level++) {
+            headings[level] = new Font(sans[BOLD], HEADING_SIZES[level], Font.NORMAL, TEXT);
+        }
+    }
+
+    private static BaseFont standard(String name) throws IOException {
+        return BaseFont.createFont(name, BaseFont.CP1252, BaseFont.NOT_EMBEDDED);
+    }
+
+    public Font inline(int flags) {
+        return inline[flags & (inline.length - 1)];
+    }
+
+    // level 1..6, deeper levels use the smallest heading
+    public Font heading(int level) {
+        return headings[Math.min(Math.max(level, 1), headings.length) - 1];
+    }
+}
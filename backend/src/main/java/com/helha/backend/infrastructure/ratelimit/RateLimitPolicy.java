@@ -0,0 +1,46 @@
+package com.helha.backend.infrastructure.ratelimit;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Classes of endpoints limited per user, each with its own buckets (see {@link RateLimiter}).
+ * Reads and the authentication endpoints are not limited.
+ */
+public enum RateLimitPolicy {
+
+    // changes of notes, folders and bin, imports
+    WRITE,
+    // ZIP archives and PDF built by the server
+    EXPORT;
+
+    private static final AntPathMatcher PATHS = new AntPathMatcher();
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    // policy of a request, empty when it is not limited
+    public static Optional<RateLimitPolicy> of(String method, String path) {
+        if (isExport(method, path)) return Optional.of(EXPORT);
+        if (WRITE_METHODS.contains(method) && PATHS.match("/api/**", path) && !PATHS.match("/api/auth/**", path)) {
+            return Optional.of(WRITE);
+        }
+        return Optional.empty();
+    }
+
+    private static boolean isExport(String method, String path) {
+        return switch (method) {
+            // /api/notes/export/zip, /api/notes/{id}/export/pdf, /api/folders/{id}/export/pdf, resumed downloads
+            case "GET" -> PATHS.match("/api/*/export/**", path) || PATHS.match("/api/*/*/export/**", path)
+                    || PATHS.match("/api/exports/*/download", path);
+            case "POST" -> path.equals("/api/exports");
+            default -> false;
+        };
+    }
+
+    // tag of the metrics, prefix of the properties
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
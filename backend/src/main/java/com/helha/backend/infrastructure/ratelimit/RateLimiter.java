@@ -0,0 +1,95 @@
+package com.helha.backend.infrastructure.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.helha.backend.controllers.exceptions.GenericTooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process rate limits per user: one token bucket per (policy, user), "capacity" requests at once
+ * then capacity per period. The buckets live in Caffeine caches bounded in size; a bucket unused for
+ * a whole period is full again, so it is simply evicted. A policy with a capacity of 0 is not limited.
+ * Exposes "http.rate-limit.requests" (by policy and outcome) and "http.rate-limit.buckets" (by policy).
+ * Each instance counts its own requests: behind a load balancer the limits apply per instance.
+ */
+@Component
+public class RateLimiter {
+
+    public record Rule(long capacity, Duration period) {
+    }
+
+    private final Map<RateLimitPolicy, Limit> limits = new EnumMap<>(RateLimitPolicy.class);
+    private final LongSupplier clock;
+
+    @Autowired
+    public RateLimiter(MeterRegistry meterRegistry,
+                       @Value("${app.rate-limit.write.capacity:120}") long writeCapacity,
+                       @Value("${app.rate-limit.write.period:1m}") Duration writePeriod,
+                       @Value("${app.rate-limit.export.capacity:10}") long exportCapacity,
+                       @Value("${app.rate-limit.export.period:1m}") Duration exportPeriod,
+                       @Value("${app.rate-limit.maximum-users:100000}") long maximumUsers) {
+        this(meterRegistry, Map.of(
+                RateLimitPolicy.WRITE, new Rule(writeCapacity, writePeriod),
+                RateLimitPolicy.EXPORT, new Rule(exportCapacity, exportPeriod)), maximumUsers, System::nanoTime);
+    }
+
+    RateLimiter(MeterRegistry meterRegistry, Map<RateLimitPolicy, Rule> rules, long maximumUsers, LongSupplier clock) {
+        this.clock = clock;
+        rules.forEach((policy, rule) -> {
+            if (rule.capacity() > 0) limits.put(policy, new Limit(policy, rule, maximumUsers, meterRegistry));
+        });
+    }
+
+    // takes a token from the bucket of the user, or refuses the request (429) until the next token
+    public void acquire(RateLimitPolicy policy, Long userId) {
+        Limit limit = limits.get(policy);
+        if (limit == null) return;
+        long now = clock.getAsLong();
+        long waitNanos = limit.buckets.get(userId, id -> limit.newBucket(now)).tryConsume(now);
+        if (waitNanos == 0) {
+            limit.allowed.increment();
+            return;
+        }
+        limit.rejected.increment();
+        // Retry-After is in whole seconds: rounded up, the token is there when the client comes back
+        Duration retryAfter = Duration.ofSeconds((waitNanos + 999_999_999L) / 1_000_000_000L);
+        throw new GenericTooManyRequestsException("Too many " + policy.key() + " requests, retry later", retryAfter);
+    }
+
+    private static final class Limit {
+        private final long capacity;
+        private final long intervalNanos;
+        private final Cache<Long, TokenBucket> buckets;
+        private final Counter allowed;
+        private final Counter rejected;
+
+        private Limit(RateLimitPolicy policy, Rule rule, long maximumUsers, MeterRegistry meterRegistry) {
+            this.capacity = rule.capacity();
+            this.intervalNanos = Math.max(1, rule.period().toNanos() / rule.capacity());
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maximumUsers)
+                    .expireAfterAccess(rule.period())
+                    .build();
+            this.allowed = Counter.builder("http.rate-limit.requests").tag("policy", policy.key()).tag("outcome", "allowed")
+                    .description("Requests let through by the rate limiter").register(meterRegistry);
+            this.rejected = Counter.builder("http.rate-limit.requests").tag("policy", policy.key()).tag("outcome", "rejected")
+                    .description("Requests refused by the rate limiter (429)").register(meterRegistry);
+            Gauge.builder("http.rate-limit.buckets", buckets, Cache::estimatedSize).tag("policy", policy.key())
+                    .description("Users with a bucket in memory").register(meterRegistry);
+        }
+
+        private TokenBucket newBucket(long now) {
+            return new TokenBucket(capacity, intervalNanos, now);
+        }
+    }
+}
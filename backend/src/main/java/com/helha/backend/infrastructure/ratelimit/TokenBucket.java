@@ -0,0 +1,34 @@
+package com.helha.backend.infrastructure.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket of one user for one policy, without lock: the whole state is the time at which the
+ * bucket will be full again (generic cell rate algorithm), moved forward by compare-and-set.
+ * Behaves like a bucket of "capacity" tokens that gets one token back every interval.
+ */
+final class TokenBucket {
+
+    // time to get one token back
+    private final long intervalNanos;
+    // a full bucket: capacity tokens ahead of now
+    private final long limitNanos;
+    // when the tokens taken so far are all back (System.nanoTime scale)
+    private final AtomicLong fullAt;
+
+    TokenBucket(long capacity, long intervalNanos, long now) {
+        this.intervalNanos = intervalNanos;
+        this.limitNanos = capacity * intervalNanos;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    // 0 when a token was taken, otherwise the nanoseconds until the next one
+    long tryConsume(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long ahead = Math.max(current - now, 0) + intervalNanos;
+            if (ahead > limitNanos) return ahead - limitNanos;
+            if (fullAt.compareAndSet(current, now + ahead)) return 0;
+        }
+    }
+}
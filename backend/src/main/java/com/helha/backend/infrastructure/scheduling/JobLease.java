@@ -0,0 +1,56 @@
+package com.helha.backend.infrastructure.scheduling;
+
+import java.time.Duration;
+
+/**
+ * A lease held by this instance (see {@link JobLeases}).
+ * Call {@link #keepAlive()} regularly while working, and close it once the work is done.
+ */
+public final class JobLease implements AutoCloseable {
+
+    private final JobLeases leases;
+    private final String name;
+    private final Duration ttl;
+    private long renewAt;
+    private boolean completed;
+
+    JobLease(JobLeases leases, String name, Duration ttl) {
+        this.leases = leases;
+        this.name = name;
+        this.ttl = ttl;
+        scheduleRenewal();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // renews the lease once a third of the TTL has gone by; throws when another instance took it over,
+    // in which case the caller must stop: the work now belongs to the other instance
+    public void keepAlive() {
+        if (System.nanoTime() - renewAt < 0) return;
+        if (!leases.renew(name, ttl)) throw new LeaseLostException(name);
+        scheduleRenewal();
+    }
+
+    private void scheduleRenewal() {
+        renewAt = System.nanoTime() + ttl.toNanos() / 3;
+    }
+
+    // releases the lease and records the job as done, see JobLeases#tryAcquire(String, Duration, LocalDateTime)
+    public void complete() {
+        leases.complete(name);
+        completed = true;
+    }
+
+    @Override
+    public void close() {
+        if (!completed) leases.release(name);
+    }
+
+    public static class LeaseLostException extends IllegalStateException {
+        public LeaseLostException(String name) {
+            super("Lease '" + name + "' was taken over by another instance");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.helha.backend.infrastructure.scheduling;
+
+import com.helha.backend.domain.repositories.IJobLeaseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Leases that keep a scheduled job (or one shard of it) on a single backend instance at a time.
+ * They live in the JOB_LEASES table of the application database: no outside coordination service.
+ * The holder renews its lease while it works; when it dies, the lease expires and another instance
+ * takes it over. Times come from the clock of each instance, the TTL (minutes) being far above the
+ * drift between NTP-synced servers.
+ */
+@Component
+public class JobLeases {
+
+    private final IJobLeaseRepository leaseRepository;
+    private final String instanceId;
+
+    public JobLeases(IJobLeaseRepository leaseRepository, @Value("${app.instance-id:}") String instanceId) {
+        this.leaseRepository = leaseRepository;
+        this.instanceId = instanceId.isBlank() ? defaultInstanceId() : instanceId;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    // the lease when it is free, expired or already ours; empty while another instance holds it
+    public Optional<JobLease> tryAcquire(String name, Duration ttl) {
+        return tryAcquire(name, ttl, null);
+    }
+
+    // same, but also empty when the job was completed (by any instance) at or after doneSince
+    public Optional<JobLease> tryAcquire(String name, Duration ttl, LocalDateTime doneSince) {
+        if (!leaseRepository.existsById(name)) createRow(name);
+        LocalDateTime now = LocalDateTime.now();
+        if (leaseRepository.acquire(name, instanceId, now, now.plus(ttl), doneSince) == 0) return Optional.empty();
+        return Optional.of(new JobLease(this, name, ttl));
+    }
+
+    public boolean isCompletedSince(String name, LocalDateTime doneSince) {
+        return leaseRepository.existsByNameAndLastCompletedAtGreaterThanEqual(name, doneSince);
+    }
+
+    boolean renew(String name, Duration ttl) {
+        LocalDateTime now = LocalDateTime.now();
+        return leaseRepository.renew(name, instanceId, now, now.plus(ttl)) > 0;
+    }
+
+    void release(String name) {
+        leaseRepository.release(name, instanceId);
+    }
+
+    void complete(String name) {
+        leaseRepository.complete(name, instanceId, LocalDateTime.now());
+    }
+
+    // an insert and not a save: merging over a row created in the meantime would free its lease
+    private void createRow(String name) {
+        try {
+            leaseRepository.create(name);
+        } catch (DataIntegrityViolationException e) {
+            // created by another instance in the meantime
+        }
+    }
+
+    // host name plus a random part: two instances on the same host stay distinct
+    private static String defaultInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown-host";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -1,7 +1,10 @@
 package com.helha.backend.infrastructure.security;
 
 import com.helha.backend.domain.repositories.IUserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,6 +17,8 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.concurrent.ThreadPoolExecutor;
+
 @Configuration
 @RequiredArgsConstructor
 public class ApplicationConfig {
@@ -39,10 +44,10 @@ public class ApplicationConfig {
      //Configures the strategy to verify credentials
      //Links our UserDetailsService and the BCrypt encoder
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService());
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
@@ -55,8 +60,11 @@ public class ApplicationConfig {
 
 
     //Defines the hashing algorithm for passwords (BCrypt)
+    //The hashes run on their own bounded pool, off the request threads
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Qualifier("passwordHashingPool") ThreadPoolExecutor passwordHashingPool,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${app.password-hashing.strength:10}") int strength) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), passwordHashingPool, meterRegistry);
     }
 }
\ No newline at end of file
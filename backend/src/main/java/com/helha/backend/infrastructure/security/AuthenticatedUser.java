@@ -0,0 +1,38 @@
+package com.helha.backend.infrastructure.security;
+
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Principal of an authenticated request, built from the claims of its JWT (see {@link JwtUtils}).
+ * The services read the id of the user from it: no user lookup per call, ownership checks compare ids.
+ */
+public record AuthenticatedUser(Long id, String username, String role) implements Principal {
+
+    // what Authentication.getName() returns
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public List<GrantedAuthority> authorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role));
+    }
+
+    // user of the current request (401 when there is none)
+    public static AuthenticatedUser current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) return user;
+        throw new AuthenticationCredentialsNotFoundException("No authenticated user");
+    }
+
+    public static Long currentId() {
+        return current().id();
+    }
+}
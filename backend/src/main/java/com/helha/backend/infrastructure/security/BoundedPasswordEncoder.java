@@ -0,0 +1,91 @@
+package com.helha.backend.infrastructure.security;
+
+import com.helha.backend.controllers.exceptions.GenericTooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the hashing of a password encoder (BCrypt) on a dedicated pool sized to the cores, so a burst
+ * of logins or registrations cannot take every CPU from the other requests: the request thread only
+ * waits for its result. When the pool and its bounded queue are full the caller gets a 429 whose
+ * Retry-After is estimated from the queue and the mean hash time.
+ * Exposes "auth.password.hash" (by operation), "auth.password.rejected" and the pool metrics
+ * (executor.*, name=passwordHashing) to tune the BCrypt strength against throughput.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    public static final String POOL_NAME = "passwordHashing";
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor pool;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, ThreadPoolExecutor pool, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.pool = pool;
+        this.encodeTimer = Timer.builder("auth.password.hash").tag("operation", "encode")
+                .description("Time spent hashing a password on the hashing pool").register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.password.hash").tag("operation", "matches")
+                .description("Time spent checking a password on the hashing pool").register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.rejected")
+                .description("Password hashes refused because the hashing pool was saturated").register(meterRegistry);
+        new ExecutorServiceMetrics(pool, POOL_NAME, Tags.empty()).bindTo(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // cheap (reads the cost in the hash): stays on the caller thread
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Timer timer, Callable<T> hashing) {
+        Future<T> result;
+        try {
+            result = pool.submit(() -> timer.recordCallable(hashing));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new GenericTooManyRequestsException("Too many logins in progress, retry later", retryAfter());
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    // time for the queue ahead to drain, at the mean hash time observed so far
+    Duration retryAfter() {
+        double meanMillis = Math.max(encodeTimer.mean(TimeUnit.MILLISECONDS), matchesTimer.mean(TimeUnit.MILLISECONDS));
+        long waiting = pool.getQueue().size() + pool.getActiveCount();
+        return Duration.ofMillis((long) (waiting * meanMillis / Math.max(1, pool.getMaximumPoolSize())));
+    }
+}
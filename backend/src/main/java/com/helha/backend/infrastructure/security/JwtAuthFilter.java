@@ -1,5 +1,7 @@
 package com.helha.backend.infrastructure.security;
 
+import com.helha.backend.domain.repositories.IUserRepository;
+import com.helha.backend.infrastructure.cache.VerifiedTokenCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -8,19 +10,19 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
-    private final UserDetailsService userDetailsService;
+    private final IUserRepository userRepository;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -39,24 +41,33 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             }
         }
 
-        // validation and Authentification
-        if (token != null && jwtUtils.validateToken(token)) {
-            String username = jwtUtils.extractUsername(token);
-
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
+        // validation and Authentification: the principal comes from the claims, no user lookup.
+        // A token seen recently is taken from the cache, without checking its signature again
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            Optional<VerifiedToken> verified = verifiedTokenCache.get(token, this::verify);
+            verified.map(VerifiedToken::principal).ifPresent(user -> {
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails,
+                        user,
                         null,
-                        userDetails.getAuthorities()
+                        user.authorities()
                 );
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-            }
+            });
         }
 
         // we continue the filter chain
         filterChain.doFilter(request, response);
     }
+
+    // tokens issued before the id was a claim (valid 24 hours): one lookup, cached with the token
+    private Optional<VerifiedToken> verify(String token) {
+        return jwtUtils.parseToken(token).flatMap(verified -> {
+            AuthenticatedUser user = verified.principal();
+            if (user.id() != null) return Optional.of(verified);
+            return userRepository.findByUsername(user.username())
+                    .map(dbUser -> verified.withPrincipal(
+                            new AuthenticatedUser(dbUser.getId(), dbUser.getUsername(), dbUser.getRole())));
+        });
+    }
 }
\ No newline at end of file
@@ -1,7 +1,10 @@
 package com.helha.backend.infrastructure.security;
 
 // --- AJOUT DES IMPORTS MANQUANTS ---
+import com.helha.backend.domain.models.DbUser;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -10,9 +13,14 @@ import io.jsonwebtoken.security.Keys;
 import org.springframework.stereotype.Component;
 import java.security.Key;
 import java.util.Date;
+import java.util.Optional;
 
+// Tokens carry the id and the role of the user as claims: a request is authenticated without a user lookup
 @Component
 public class JwtUtils {
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLE_CLAIM = "role";
+
     private static final String SECRET = "UnePhraseSecreteTresLonguePourLeHackathonHelha2024BackendKey";
 
 
@@ -20,34 +28,33 @@ public class JwtUtils {
     private static final long EXPIRATION_TIME = 86400000;
 
     private final Key key = Keys.hmacShaKeyFor(SECRET.getBytes());
+    // immutable and thread-safe: built once, shared by every request
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
 
-    public String generateToken(String username) {
+    public String generateToken(DbUser user) {
         return Jwts.builder()
-                .setSubject(username)
+                .setSubject(user.getUsername())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(ROLE_CLAIM, user.getRole())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String extractUsername(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
-    }
-
-    public boolean validateToken(String token) {
+    // checks the signature and the expiration once; empty when the token is not valid.
+    // Tokens issued before the claims existed give a principal without id (see JwtAuthFilter)
+    public Optional<VerifiedToken> parseToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            if (claims.getSubject() == null) return Optional.empty();
+            Number userId = claims.get(USER_ID_CLAIM, Number.class);
+            AuthenticatedUser principal = new AuthenticatedUser(userId == null ? null : userId.longValue(),
+                    claims.getSubject(), claims.get(ROLE_CLAIM, String.class));
+            Date expiration = claims.getExpiration();
+            return Optional.of(new VerifiedToken(principal, expiration == null ? null : expiration.toInstant()));
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return Optional.empty();
         }
     }
 }
\ No newline at end of file
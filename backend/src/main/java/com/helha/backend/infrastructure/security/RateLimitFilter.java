@@ -0,0 +1,54 @@
+package com.helha.backend.infrastructure.security;
+
+import com.helha.backend.controllers.exceptions.GenericTooManyRequestsException;
+import com.helha.backend.infrastructure.ratelimit.RateLimitPolicy;
+import com.helha.backend.infrastructure.ratelimit.RateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.util.Optional;
+
+// Rate limits of the writes and exports, per user: runs right after JwtAuthFilter, which tells who the user is
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final HandlerExceptionResolver exceptionResolver;
+
+    public RateLimitFilter(RateLimiter rateLimiter,
+                           @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        this.rateLimiter = rateLimiter;
+        this.exceptionResolver = exceptionResolver;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Optional<RateLimitPolicy> policy = RateLimitPolicy.of(request.getMethod(), path);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        // anonymous requests are refused further down the chain anyway
+        if (policy.isPresent() && authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            try {
+                rateLimiter.acquire(policy.get(), user.id());
+            } catch (GenericTooManyRequestsException e) {
+                // same 429 (ProblemDetail and Retry-After) as the ones of the controllers, see GlobalErrors
+                exceptionResolver.resolveException(request, response, null, e);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,11 @@
+package com.helha.backend.infrastructure.security;
+
+import java.time.Instant;
+
+// a token whose signature was checked, with the principal read from its claims and its "exp"
+public record VerifiedToken(AuthenticatedUser principal, Instant expiresAt) {
+
+    public VerifiedToken withPrincipal(AuthenticatedUser principal) {
+        return new VerifiedToken(principal, expiresAt);
+    }
+}
@@ -0,0 +1,78 @@
+package com.helha.backend.infrastructure.seeding;
+
+import com.helha.backend.domain.repositories.IFolderRepository;
+import com.helha.backend.domain.repositories.INoteRepository;
+import com.helha.backend.infrastructure.scheduling.JobLease;
+import com.helha.backend.infrastructure.scheduling.JobLeases;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ToIntFunction;
+
+/**
+ * Flags the bin roots (what was binned on its own) among the rows binned before the column existed,
+ * from their deletion batch. Runs at startup before the seeder, once for the whole database: it is
+ * recorded as completed in its job lease (see {@link JobLeases}), so later startups only look up that row
+ * instead of going through the bin again.
+ */
+@Component
+@Order(0)
+public class BinRootBackfill implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BinRootBackfill.class);
+
+    private static final String LEASE_NAME = "bin-root-backfill";
+    // one pass over the bin, without renewal: another instance may only take over a backfill that died
+    private static final Duration LEASE_TTL = Duration.ofMinutes(10);
+    // completed at any time
+    private static final LocalDateTime EVER = LocalDateTime.of(1970, 1, 1, 0, 0);
+    // ids per update statement
+    private static final int CHUNK = 1000;
+
+    private final IFolderRepository folderRepository;
+    private final INoteRepository noteRepository;
+    private final JobLeases leases;
+    private final TransactionTemplate transactionTemplate;
+
+    public BinRootBackfill(IFolderRepository folderRepository, INoteRepository noteRepository,
+                           JobLeases leases, PlatformTransactionManager transactionManager) {
+        this.folderRepository = folderRepository;
+        this.noteRepository = noteRepository;
+        this.leases = leases;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(String... args) {
+        if (leases.isCompletedSince(LEASE_NAME, EVER)) return;
+        // empty while another instance is on it, or once it has completed
+        Optional<JobLease> lease = leases.tryAcquire(LEASE_NAME, LEASE_TTL, EVER);
+        if (lease.isEmpty()) return;
+
+        try (JobLease held = lease.get()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                int folders = mark(folderRepository.findUnmarkedBinRoots(), folderRepository::markBinRoots);
+                int notes = mark(noteRepository.findUnmarkedBinRoots(), noteRepository::markBinRoots);
+                if (folders + notes > 0) log.info("Bin roots flagged for {} folders and {} notes", folders, notes);
+            });
+            held.complete();
+        }
+    }
+
+    private int mark(List<Long> ids, ToIntFunction<List<Long>> update) {
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += CHUNK) {
+            updated += update.applyAsInt(ids.subList(from, Math.min(from + CHUNK, ids.size())));
+        }
+        return updated;
+    }
+}
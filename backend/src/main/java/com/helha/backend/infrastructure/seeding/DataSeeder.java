@@ -1,6 +1,7 @@
 package com.helha.backend.infrastructure.seeding;
 
-import com.helha.backend.domain.service.MetadataUtils;
+import com.helha.backend.domain.service.MetadataScanner;
+import com.helha.backend.domain.service.NoteMetadata;
 import com.helha.backend.domain.models.DbFolder;
 import com.helha.backend.domain.models.DbNote;
 import com.helha.backend.domain.repositories.IFolderRepository;
@@ -42,9 +43,10 @@ public class DataSeeder implements CommandLineRunner {
             dbNote.setFolder(horror);
 
             // Métadata
-            dbNote.setWordCount(MetadataUtils.countWords(content1));
-            dbNote.setSizeInBytes(MetadataUtils.calculateSizeInBytes(content1));
-            dbNote.setLineCount(MetadataUtils.countLines(content1));
+            NoteMetadata metadata1 = MetadataScanner.scan(content1);
+            dbNote.setWordCount(metadata1.wordCount());
+            dbNote.setSizeInBytes(metadata1.sizeInBytes());
+            dbNote.setLineCount(metadata1.lineCount());
 
             noteRepository.save(dbNote);
 
@@ -56,8 +58,9 @@ public class DataSeeder implements CommandLineRunner {
             zombie.setFolder(horror); // essential : nullable = false
 
             // Métadata
-            zombie.setWordCount(MetadataUtils.countWords(contentZombie));
-            zombie.setLineCount(MetadataUtils.countLines(contentZombie));
+            NoteMetadata metadataZombie = MetadataScanner.scan(contentZombie);
+            zombie.setWordCount(metadataZombie.wordCount());
+            zombie.setLineCount(metadataZombie.lineCount());
 
             noteRepository.save(zombie);
 
@@ -0,0 +1,70 @@
+package com.helha.backend.infrastructure.seeding;
+
+import com.helha.backend.domain.models.DbFolder;
+import com.helha.backend.domain.repositories.IFolderRepository;
+import com.helha.backend.domain.repositories.projections.FolderPathView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills the materialised path of the folders created before the column existed.
+ * Runs once at startup before the seeder, and does nothing when every row already has a path.
+ */
+@Component
+@Order(0)
+public class FolderPathBackfill implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(FolderPathBackfill.class);
+
+    private final IFolderRepository folderRepository;
+
+    public FolderPathBackfill(IFolderRepository folderRepository) {
+        this.folderRepository = folderRepository;
+    }
+
+    @Override
+    @Transactional
+    public void run(String... args) {
+        if (!folderRepository.existsByPathIsNull()) return;
+
+        List<FolderPathView> rows = folderRepository.findAllPaths();
+        Map<Long, Long> parents = new HashMap<>(rows.size() * 2);
+        for (FolderPathView row : rows) parents.put(row.getId(), row.getParentId());
+
+        Map<Long, String> paths = new HashMap<>(rows.size() * 2);
+        int updated = 0;
+        for (FolderPathView row : rows) {
+            if (row.getPath() != null) continue;
+            String path = pathOf(row.getParentId(), parents, paths);
+            folderRepository.updatePath(row.getId(), path, depthOf(path));
+            updated++;
+        }
+        log.info("Materialised path filled for {} folders", updated);
+    }
+
+    // path of the children of a folder, computed from the parent links (memoised)
+    private String pathOf(Long parentId, Map<Long, Long> parents, Map<Long, String> paths) {
+        if (parentId == null) return DbFolder.ROOT_PATH;
+        String cached = paths.get(parentId);
+        if (cached != null) return cached;
+        String path = pathOf(parents.get(parentId), parents, paths) + parentId + "/";
+        paths.put(parentId, path);
+        return path;
+    }
+
+    private int depthOf(String path) {
+        int depth = -1;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/') depth++;
+        }
+        return depth;
+    }
+}
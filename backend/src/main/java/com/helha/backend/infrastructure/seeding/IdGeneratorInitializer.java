@@ -0,0 +1,68 @@
+package com.helha.backend.infrastructure.seeding;
+
+import com.helha.backend.domain.models.IdGenerators;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves the pooled id generators above the ids already in the tables, so the rows created with
+ * IDENTITY keep their ids and new ones never collide with them.
+ * Runs when the bean is created, after the schema update (entityManagerFactory) and before the
+ * server accepts requests or the seeders insert anything. Does nothing once the generators are ahead.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdGeneratorInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGeneratorInitializer.class);
+
+    // generator row -> table whose ids it hands out
+    private static final Map<String, String> TABLES = Map.of(
+            IdGenerators.USERS, "users",
+            IdGenerators.FOLDERS, "folders",
+            IdGenerators.NOTES, "notes",
+            IdGenerators.TOMBSTONES, "tombstones");
+
+    private static final String UPDATE = "update " + IdGenerators.TABLE + " set " + IdGenerators.VALUE_COLUMN + " = ? " +
+            "where " + IdGenerators.NAME_COLUMN + " = ? and " + IdGenerators.VALUE_COLUMN + " < ?";
+    private static final String INSERT = "insert into " + IdGenerators.TABLE +
+            " (" + IdGenerators.NAME_COLUMN + ", " + IdGenerators.VALUE_COLUMN + ") values (?, ?)";
+    private static final String EXISTS = "select count(*) from " + IdGenerators.TABLE + " where " + IdGenerators.NAME_COLUMN + " = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdGeneratorInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void alignGenerators() {
+        TABLES.forEach((generator, table) -> {
+            Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+            if (maxId == null) return;
+            // the pooled optimizer reads the stored value as the top of the next block of ids:
+            // the whole block must lie above the existing ids
+            long floor = maxId + IdGenerators.ALLOCATION_SIZE + 1;
+            if (jdbcTemplate.update(UPDATE, floor, generator, floor) > 0) {
+                log.info("Id generator '{}' moved above id {}", generator, maxId);
+                return;
+            }
+            Integer rows = jdbcTemplate.queryForObject(EXISTS, Integer.class, generator);
+            if (rows != null && rows > 0) return;
+            try {
+                jdbcTemplate.update(INSERT, generator, floor);
+                log.info("Id generator '{}' starts above id {}", generator, maxId);
+            } catch (DuplicateKeyException e) {
+                // another instance created the row in the meantime
+                jdbcTemplate.update(UPDATE, floor, generator, floor);
+            }
+        });
+    }
+}
@@ -5,6 +5,7 @@ import com.helha.backend.TestcontainersConfiguration;
 import com.helha.backend.domain.models.DbUser;
 import com.helha.backend.domain.repositories.IFolderRepository;
 import com.helha.backend.domain.repositories.INoteRepository;
+import com.helha.backend.domain.repositories.ITombstoneRepository;
 import com.helha.backend.domain.repositories.IUserRepository;
 import com.helha.backend.infrastructure.security.JwtUtils;
 import jakarta.servlet.http.Cookie;
@@ -33,6 +34,7 @@ public abstract class AbstractSpookyIT {
     @Autowired protected IUserRepository userRepository;
     @Autowired protected INoteRepository noteRepository;
     @Autowired protected IFolderRepository folderRepository;
+    @Autowired protected ITombstoneRepository tombstoneRepository;
 
     @Autowired protected JwtUtils jwtUtils;
     @Autowired protected PasswordEncoder passwordEncoder;
@@ -40,6 +42,7 @@ public abstract class AbstractSpookyIT {
     @BeforeEach
     void cleanDb() {
         // Nettoyage complet de la base Docker avant chaque test
+        tombstoneRepository.deleteAll();
         noteRepository.deleteAll();
         folderRepository.deleteAll();
         userRepository.deleteAll();
@@ -55,7 +58,7 @@ public abstract class AbstractSpookyIT {
     }
 
     protected Cookie jwtCookieFor(DbUser savedUser) {
-        String token = jwtUtils.generateToken(savedUser.getUsername());
+        String token = jwtUtils.generateToken(savedUser);
         return new Cookie("token", token);
     }
 }
\ No newline at end of file
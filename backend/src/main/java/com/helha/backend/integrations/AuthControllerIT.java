@@ -1,12 +1,14 @@
 package com.helha.backend.integrations;
 
 import com.helha.backend.application.dto.AuthRequestDto;
+import com.helha.backend.domain.models.DbUser;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -43,4 +45,18 @@ public class AuthControllerIT extends AbstractSpookyIT {
                 .andExpect(header().string(HttpHeaders.SET_COOKIE, containsString("token=")))
                 .andExpect(header().string(HttpHeaders.SET_COOKIE, containsString("HttpOnly")));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("GET /actuator - health public, métriques réservées aux administrateurs")
+    void actuator_shouldOnlyShowMetricsToAdmins() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics").cookie(jwtCookieFor(persistUser("curious", "password123"))))
+                .andExpect(status().isForbidden());
+
+        DbUser admin = persistUser("warden", "password123");
+        admin.setRole("ADMIN");
+        admin = userRepository.save(admin);
+        mockMvc.perform(get("/actuator/metrics").cookie(jwtCookieFor(admin))).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,156 @@
+package com.helha.backend.integrations;
+
+import com.helha.backend.application.services.CleanupService;
+import com.helha.backend.domain.models.DbFolder;
+import com.helha.backend.domain.models.DbNote;
+import com.helha.backend.domain.models.DbTombstone;
+import com.helha.backend.domain.models.DbUser;
+import com.helha.backend.domain.repositories.IJobLeaseRepository;
+import com.helha.backend.infrastructure.scheduling.JobLeases;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+@DisplayName("Corbeille - Nettoyage nocturne IT")
+// petits lots: le nettoyage passe par plusieurs transactions; baux courts pour la reprise
+@TestPropertySource(properties = {"app.cleanup.chunk-size=2", "app.cleanup.shards=2", "app.cleanup.lease-ttl=1s"})
+public class CleanupServiceIT extends AbstractSpookyIT {
+
+    @Autowired private CleanupService cleanupService;
+    @Autowired private IJobLeaseRepository leaseRepository;
+
+    // every test is a new nightly run: no shard already done
+    @BeforeEach
+    void resetLeases() {
+        leaseRepository.deleteAll();
+    }
+
+    private DbFolder folder(DbUser user, String name, DbFolder parent, LocalDateTime deletedAt) {
+        DbFolder folder = new DbFolder(name, parent);
+        folder.setUser(user);
+        folder.setDeleted(deletedAt != null);
+        folder.setDeletedAt(deletedAt);
+        return folderRepository.save(folder);
+    }
+
+    private DbNote note(DbUser user, String title, DbFolder folder, LocalDateTime deletedAt) {
+        DbNote note = new DbNote(title, "# " + title, folder);
+        note.setUser(user);
+        note.setDeleted(deletedAt != null);
+        note.setDeletedAt(deletedAt);
+        return noteRepository.save(note);
+    }
+
+    @Test
+    @DisplayName("Supprime les éléments expirés et leurs sous-arbres, garde le reste")
+    void removeExpiredItems_shouldPurgeExpiredSubtreesBottomUp() {
+        DbUser user = persistUser("gravedigger", "pass");
+        LocalDateTime expired = LocalDateTime.now().minusDays(40);
+        LocalDateTime recent = LocalDateTime.now().minusDays(5);
+
+        // notes seules
+        note(user, "Expirée 1", null, expired);
+        note(user, "Expirée 2", null, expired);
+        note(user, "Expirée 3", null, expired);
+        DbNote binned = note(user, "Récente", null, recent);
+        DbNote active = note(user, "Active", null, null);
+
+        // dossier expiré: tout ce qu'il contient part avec lui, même un sous-dossier expiré lui aussi
+        DbFolder crypt = folder(user, "Crypte", null, expired);
+        DbFolder vault = folder(user, "Caveau", crypt, null);
+        DbFolder coffin = folder(user, "Cercueil", vault, null);
+        folder(user, "Ossuaire", crypt, expired);
+        note(user, "Epitaphe", crypt, null);
+        note(user, "Os", coffin, null);
+        note(user, "Poussière", coffin, null);
+        DbFolder kept = folder(user, "Récent", null, recent);
+
+        long versionBefore = userRepository.findById(user.getId()).orElseThrow().getTreeVersion();
+
+        cleanupService.removeExpiredItems();
+
+        assertEquals(Set.of(binned.getId(), active.getId()),
+                noteRepository.findAll().stream().map(DbNote::getId).collect(Collectors.toSet()));
+        assertEquals(List.of(kept.getId()), folderRepository.findAll().stream().map(DbFolder::getId).toList());
+
+        // un tombstone par ligne supprimée, pour la synchronisation delta
+        List<DbTombstone> tombstones = tombstoneRepository.findAll();
+        assertEquals(6, tombstones.stream().filter(t -> t.getKind() == DbTombstone.Kind.NOTE).count());
+        assertEquals(4, tombstones.stream().filter(t -> t.getKind() == DbTombstone.Kind.FOLDER).count());
+        long versionAfter = userRepository.findById(user.getId()).orElseThrow().getTreeVersion();
+        assertTrue(tombstones.stream().allMatch(t -> t.getSyncVersion() > versionBefore
+                && t.getSyncVersion() <= versionAfter));
+    }
+
+    @Test
+    @DisplayName("Reprend le shard d'une instance morte une fois son bail expiré")
+    void removeExpiredItems_shouldTakeOverTheShardOfADeadInstance() {
+        DbUser user = persistUser("successor", "pass");
+        DbNote expired = note(user, "Oubliée", null, LocalDateTime.now().minusDays(40));
+
+        // une autre instance a pris le shard de l'utilisateur puis s'est arrêtée sans le rendre
+        new JobLeases(leaseRepository, "dead-node").tryAcquire("bin-cleanup#" + user.getId() % 2, Duration.ofSeconds(1));
+
+        cleanupService.removeExpiredItems();
+
+        assertTrue(noteRepository.findById(expired.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Ne repasse pas sur un shard déjà terminé pendant la même nuit")
+    void removeExpiredItems_shouldSkipTheShardsAlreadyDone() {
+        DbUser user = persistUser("latecomer", "pass");
+        cleanupService.removeExpiredItems();
+
+        // a second instance starting the same run finds every shard done
+        DbNote expired = note(user, "Trop tard", null, LocalDateTime.now().minusDays(40));
+        cleanupService.removeExpiredItems();
+
+        assertFalse(noteRepository.findById(expired.getId()).isEmpty());
+        assertTrue(leaseRepository.findAll().stream().allMatch(lease -> lease.getLastCompletedAt() != null));
+    }
+
+    @Test
+    @DisplayName("Purge les tombstones trop anciens; les clients d'avant repartent d'un instantané complet")
+    void removeExpiredItems_shouldPruneOldTombstones_andMoveTheSyncHorizon() throws Exception {
+        DbUser user = persistUser("forgetful", "pass");
+        user.setTreeVersion(5);
+        user = userRepository.save(user);
+        Cookie jwt = jwtCookieFor(user);
+
+        DbTombstone old = new DbTombstone(user.getId(), DbTombstone.Kind.NOTE, 1L, 3);
+        old.setDeletedAt(LocalDateTime.now().minusDays(100));
+        tombstoneRepository.save(old);
+        DbTombstone fresh = tombstoneRepository.save(new DbTombstone(user.getId(), DbTombstone.Kind.NOTE, 2L, 5));
+
+        cleanupService.removeExpiredItems();
+
+        assertEquals(List.of(fresh.getId()), tombstoneRepository.findAll().stream().map(DbTombstone::getId).toList());
+        assertEquals(3, userRepository.findById(user.getId()).orElseThrow().getSyncHorizon());
+
+        // the deletion of version 3 is forgotten: a client at version 2 must start over
+        mockMvc.perform(get("/api/sync").param("since", "2").cookie(jwt))
+                .andExpect(jsonPath("$.fullResync", is(true)))
+                .andExpect(jsonPath("$.removed", hasSize(0)));
+        mockMvc.perform(get("/api/sync").param("since", "3").cookie(jwt))
+                .andExpect(jsonPath("$.fullResync", is(false)))
+                .andExpect(jsonPath("$.removed", hasSize(1)));
+    }
+}
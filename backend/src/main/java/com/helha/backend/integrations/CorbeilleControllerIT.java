@@ -0,0 +1,176 @@
+package com.helha.backend.integrations;
+
+import com.helha.backend.application.dto.BinSelectionDto;
+import com.helha.backend.domain.models.DbFolder;
+import com.helha.backend.domain.models.DbNote;
+import com.helha.backend.domain.models.DbUser;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DisplayName("Corbeille - Opérations par lots IT")
+// petits lots: vider la corbeille passe par plusieurs transactions
+@TestPropertySource(properties = "app.cleanup.chunk-size=2")
+public class CorbeilleControllerIT extends AbstractSpookyIT {
+
+    private DbFolder folder(DbUser user, String name, DbFolder parent) {
+        DbFolder folder = new DbFolder(name, parent);
+        folder.setUser(user);
+        return folderRepository.save(folder);
+    }
+
+    private DbNote note(DbUser user, String title, DbFolder folder) {
+        DbNote note = new DbNote(title, "# " + title, folder);
+        note.setUser(user);
+        return noteRepository.save(note);
+    }
+
+    private String selection(List<Long> noteIds, List<Long> folderIds) throws Exception {
+        BinSelectionDto selection = new BinSelectionDto();
+        selection.setNoteIds(noteIds);
+        selection.setFolderIds(folderIds);
+        return objectMapper.writeValueAsString(selection);
+    }
+
+    @Test
+    @DisplayName("POST /api/corbeille/restore - 200 - Restaure la sélection avec ce qui est parti avec elle")
+    void restoreSelection_shouldRestoreFoldersThenNotes() throws Exception {
+        DbUser user = persistUser("resurrector", "pass");
+        DbUser other = persistUser("bystander", "pass");
+        Cookie jwt = jwtCookieFor(user);
+
+        DbFolder crypt = folder(user, "Crypte", null);
+        DbFolder vault = folder(user, "Caveau", crypt);
+        DbNote bones = note(user, "Ossements", vault);
+        DbFolder chapel = folder(user, "Chapelle", null);
+        DbNote candle = note(user, "Bougie", chapel);
+        DbNote others = note(other, "Pas à toi", null);
+
+        // the candle goes to the bin first, then its chapel on its own
+        mockMvc.perform(delete("/api/notes/" + candle.getId()).cookie(jwt)).andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/folders/" + chapel.getId()).cookie(jwt)).andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/folders/" + crypt.getId()).cookie(jwt)).andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/notes/" + others.getId()).cookie(jwtCookieFor(other))).andExpect(status().isNoContent());
+
+        // the crypt (with its vault and bones) and the candle; the note of the other user is ignored
+        mockMvc.perform(post("/api/corbeille/restore").cookie(jwt)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(selection(List.of(candle.getId(), others.getId()), List.of(crypt.getId()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.folders", is(2)))
+                .andExpect(jsonPath("$.notes", is(2)));
+
+        assertFalse(folderRepository.findById(vault.getId()).orElseThrow().isDeleted());
+        assertFalse(noteRepository.findById(bones.getId()).orElseThrow().isDeleted());
+        // its chapel stays in the bin: the candle comes back at the root level
+        DbNote restoredCandle = noteRepository.findById(candle.getId()).orElseThrow();
+        assertFalse(restoredCandle.isDeleted());
+        assertNull(noteRepository.findOneForExport(candle.getId(), user.getId()).orElseThrow().getFolderId());
+        assertTrue(folderRepository.findById(chapel.getId()).orElseThrow().isDeleted());
+        assertTrue(noteRepository.findById(others.getId()).orElseThrow().isDeleted());
+
+        mockMvc.perform(get("/api/corbeille/folders").cookie(jwt))
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].name", is("Chapelle")));
+    }
+
+    @Test
+    @DisplayName("POST /api/corbeille/purge - 200 - Supprime la sélection et ses sous-arbres, ignore le reste")
+    void purgeSelection_shouldDeleteOnlyWhatIsInTheBin() throws Exception {
+        DbUser user = persistUser("shredder", "pass");
+        Cookie jwt = jwtCookieFor(user);
+
+        DbFolder attic = folder(user, "Grenier", null);
+        DbFolder chest = folder(user, "Coffre", attic);
+        DbNote letter = note(user, "Lettre", chest);
+        DbNote loose = note(user, "Feuille volante", null);
+        DbNote alive = note(user, "Vivante", null);
+
+        mockMvc.perform(delete("/api/folders/" + attic.getId()).cookie(jwt)).andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/notes/" + loose.getId()).cookie(jwt)).andExpect(status().isNoContent());
+        long tombstonesBefore = tombstoneRepository.count();
+
+        // the live note is not in the bin: left alone
+        mockMvc.perform(post("/api/corbeille/purge").cookie(jwt)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(selection(List.of(loose.getId(), alive.getId()), List.of(attic.getId()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.folders", is(2)))
+                .andExpect(jsonPath("$.notes", is(2)));
+
+        assertFalse(folderRepository.existsById(attic.getId()));
+        assertFalse(folderRepository.existsById(chest.getId()));
+        assertFalse(noteRepository.existsById(letter.getId()));
+        assertFalse(noteRepository.existsById(loose.getId()));
+        assertTrue(noteRepository.existsById(alive.getId()));
+        // every deletion reaches the other devices
+        assertEquals(tombstonesBefore + 4, tombstoneRepository.count());
+    }
+
+    @Test
+    @DisplayName("DELETE /api/corbeille - 200 - Vide la corbeille de l'utilisateur seulement")
+    void emptyBin_shouldDeleteEverythingInTheBinOfTheUser() throws Exception {
+        DbUser user = persistUser("janitor", "pass");
+        DbUser other = persistUser("neighbour", "pass");
+        Cookie jwt = jwtCookieFor(user);
+
+        DbFolder shed = folder(user, "Cabane", null);
+        DbFolder box = folder(user, "Boîte", shed);
+        note(user, "Clou", box);
+        for (int i = 0; i < 5; i++) {
+            DbNote note = note(user, "Miette " + i, null);
+            mockMvc.perform(delete("/api/notes/" + note.getId()).cookie(jwt)).andExpect(status().isNoContent());
+        }
+        DbNote kept = note(user, "Gardée", null);
+        mockMvc.perform(delete("/api/folders/" + shed.getId()).cookie(jwt)).andExpect(status().isNoContent());
+        DbNote othersNote = note(other, "À côté", null);
+        mockMvc.perform(delete("/api/notes/" + othersNote.getId()).cookie(jwtCookieFor(other)))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(delete("/api/corbeille").cookie(jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.folders", is(2)))
+                .andExpect(jsonPath("$.notes", is(6)));
+
+        mockMvc.perform(get("/api/corbeille").cookie(jwt)).andExpect(jsonPath("$.items", hasSize(0)));
+        mockMvc.perform(get("/api/corbeille/folders").cookie(jwt)).andExpect(jsonPath("$.items", hasSize(0)));
+        assertTrue(noteRepository.existsById(kept.getId()));
+        assertTrue(noteRepository.existsById(othersNote.getId()));
+
+        // nothing left: a second call does nothing
+        mockMvc.perform(delete("/api/corbeille").cookie(jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.folders", is(0)))
+                .andExpect(jsonPath("$.notes", is(0)));
+    }
+
+    @Test
+    @DisplayName("POST /api/corbeille/restore - 400 - Trop d'identifiants")
+    void restoreSelection_shouldRejectTooManyIds() throws Exception {
+        DbUser user = persistUser("greedy", "pass");
+        List<Long> ids = LongStream.rangeClosed(1, 1001).boxed().toList();
+
+        mockMvc.perform(post("/api/corbeille/restore").cookie(jwtCookieFor(user))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(selection(ids, Collections.emptyList())))
+                .andExpect(status().isBadRequest());
+    }
+}
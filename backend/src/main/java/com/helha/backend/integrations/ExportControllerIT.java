@@ -0,0 +1,135 @@
+package com.helha.backend.integrations;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.helha.backend.domain.models.DbFolder;
+import com.helha.backend.domain.models.DbNote;
+import com.helha.backend.domain.models.DbUser;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@DisplayName("Exports - Controller IT")
+public class ExportControllerIT extends AbstractSpookyIT {
+
+    private JsonNode startExport(Cookie jwt) throws Exception {
+        String body = mockMvc.perform(post("/api/exports").cookie(jwt))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private JsonNode waitUntilDone(Cookie jwt, String id) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            String body = mockMvc.perform(get("/api/exports/" + id).cookie(jwt))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode job = objectMapper.readTree(body);
+            if ("DONE".equals(job.get("status").asText())) return job;
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Export " + id + " not finished");
+    }
+
+    @Test
+    @DisplayName("POST /api/exports - 202 - Export en arrière-plan, réutilisé, téléchargement reprenable")
+    void export_shouldRunInBackground_andResumeDownloads() throws Exception {
+        DbUser user = persistUser("exportGhost", "password123");
+        Cookie jwt = jwtCookieFor(user);
+
+        DbFolder folder = new DbFolder();
+        folder.setName("Crypte");
+        folder.setUser(user);
+        folder = folderRepository.save(folder);
+
+        DbNote note = new DbNote();
+        note.setTitle("Grimoire");
+        note.setContent("Contenu effrayant");
+        note.setUser(user);
+        note.setFolder(folder);
+        noteRepository.save(note);
+
+        String id = startExport(jwt).get("id").asText();
+        JsonNode job = waitUntilDone(jwt, id);
+        assertEquals(100, job.get("progress").asInt());
+        assertEquals("/api/exports/" + id + "/download", job.get("downloadUrl").asText());
+
+        // arborescence inchangée -> même archive
+        assertEquals(id, startExport(jwt).get("id").asText());
+
+        MockHttpServletResponse full = mockMvc.perform(get("/api/exports/" + id + "/download").cookie(jwt))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andReturn().getResponse();
+        byte[] archive = full.getContentAsByteArray();
+        List<String> entries = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) entries.add(entry.getName());
+        }
+        assertEquals(List.of("Crypte/", "Crypte/Grimoire.md"), entries);
+
+        // reprise du téléchargement
+        byte[] rest = mockMvc.perform(get("/api/exports/" + id + "/download").cookie(jwt).header("Range", "bytes=10-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 10-" + (archive.length - 1) + "/" + archive.length))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertArrayEquals(Arrays.copyOfRange(archive, 10, archive.length), rest);
+
+        // l'arborescence change -> nouvel export
+        mockMvc.perform(post("/api/folders").cookie(jwt)
+                        .contentType("application/json").content("{\"name\":\"Caveau\"}"))
+                .andExpect(status().isCreated());
+        assertNotEquals(id, startExport(jwt).get("id").asText());
+    }
+
+    @Test
+    @DisplayName("GET /api/exports/{id} - 404 - Export d'un autre utilisateur")
+    void export_ofAnotherUser_isNotFound() throws Exception {
+        Cookie owner = jwtCookieFor(persistUser("exportOwner", "password123"));
+        Cookie intruder = jwtCookieFor(persistUser("exportIntruder", "password123"));
+
+        String id = startExport(owner).get("id").asText();
+
+        mockMvc.perform(get("/api/exports/" + id).cookie(intruder))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status", is(404)))
+                .andExpect(jsonPath("$.detail", is("Export " + id + " is not found")));
+        mockMvc.perform(get("/api/exports/" + id + "/download").cookie(intruder))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("POST /api/exports - 202 - Demandes simultanées: un seul export")
+    void concurrentExports_ofTheSameTree_shareOneJob() throws Exception {
+        Cookie jwt = jwtCookieFor(persistUser("exportTwins", "password123"));
+        Callable<String> start = () -> startExport(jwt).get("id").asText();
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> ids = pool.invokeAll(List.of(start, start, start, start));
+            String first = ids.get(0).get();
+            for (Future<String> id : ids) assertEquals(first, id.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
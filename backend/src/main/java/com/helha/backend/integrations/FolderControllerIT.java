@@ -1,16 +1,26 @@
 package com.helha.backend.integrations;
 
 import com.helha.backend.application.dto.FolderCreationDto;
+import com.helha.backend.application.dto.FolderMoveDto;
 import com.helha.backend.domain.models.DbFolder;
+import com.helha.backend.domain.models.DbNote;
 import com.helha.backend.domain.models.DbUser;
 import jakarta.servlet.http.Cookie;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -52,4 +62,210 @@ public class FolderControllerIT extends AbstractSpookyIT {
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].name", is("Racine")));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("GET /api/folders/tree - 200 - Sous-dossiers et notes liés, corbeille exclue")
+    void getTree_shouldLinkNestedFoldersAndNotes() throws Exception {
+        DbUser user = persistUser("gardener", "pass");
+        Cookie jwt = jwtCookieFor(user);
+
+        DbFolder root = new DbFolder();
+        root.setName("Racine");
+        root.setUser(user);
+        root = folderRepository.save(root);
+
+        DbFolder child = new DbFolder("Branche", root);
+        child.setUser(user);
+        child = folderRepository.save(child);
+
+        DbFolder trashed = new DbFolder("Morte", root);
+        trashed.setUser(user);
+        trashed.setDeleted(true);
+        trashed = folderRepository.save(trashed);
+
+        // live folder below a deleted one: hidden with its parent
+        DbFolder hidden = new DbFolder("Cachée", trashed);
+        hidden.setUser(user);
+        folderRepository.save(hidden);
+
+        DbNote note = new DbNote("Feuille", "contenu", child);
+        note.setUser(user);
+        noteRepository.save(note);
+
+        mockMvc.perform(get("/api/folders/tree").cookie(jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].children", hasSize(1)))
+                .andExpect(jsonPath("$[0].children[0].name", is("Branche")))
+                .andExpect(jsonPath("$[0].children[0].notes[0].title", is("Feuille")))
+                // outline only: the content is served by GET /api/notes/{id}
+                .andExpect(jsonPath("$[0].children[0].notes[0].content").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/folders/{id}/children - 200 - Pas de page suivante quand les dossiers remplissent la dernière")
+    void getChildren_shouldStopWhenFoldersFillTheLastPage() throws Exception {
+        DbUser user = persistUser("lazy", "pass");
+        Cookie jwt = jwtCookieFor(user);
+
+        DbFolder root = new DbFolder("Racine", null);
+        root.setUser(user);
+        root = folderRepository.save(root);
+        for (String name : new String[]{"A", "B"}) {
+            DbFolder child = new DbFolder(name, root);
+            child.setUser(user);
+            folderRepository.save(child);
+        }
+
+        // two sub-folders and no note: one full page, nothing after it
+        mockMvc.perform(get("/api/folders/" + root.getId() + "/children?limit=2").cookie(jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.folders", hasSize(2)))
+                .andExpect(jsonPath("$.notes", hasSize(0)))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+
+        // with a note, the next page starts with it
+        DbNote note = new DbNote("Feuille", "contenu", root);
+        note.setUser(user);
+        noteRepository.save(note);
+        String cursor = objectMapper.readTree(mockMvc.perform(get("/api/folders/" + root.getId() + "/children?limit=2").cookie(jwt))
+                .andExpect(jsonPath("$.folders", hasSize(2)))
+                .andReturn().getResponse().getContentAsString()).get("nextCursor").asText();
+        mockMvc.perform(get("/api/folders/" + root.getId() + "/children?limit=2&cursor=" + cursor).cookie(jwt))
+                .andExpect(jsonPath("$.folders", hasSize(0)))
+                .andExpect(jsonPath("$.notes[0].title", is("Feuille")))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+    }
+
+    @Test
+    @DisplayName("GET /api/folders/tree - 304 - ETag inchangé, puis 200 après une mutation")
+    void getTree_shouldReturnNotModified_untilTheTreeChanges() throws Exception {
+        DbUser user = persistUser("poller", "pass");
+        Cookie jwt = jwtCookieFor(user);
+
+        String etag = mockMvc.perform(get("/api/folders/tree").cookie(jwt))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/folders/tree").cookie(jwt).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        FolderCreationDto input = new FolderCreationDto();
+        input.setName("Nouveau");
+        mockMvc.perform(post("/api/folders")
+                        .cookie(jwt)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(input)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/folders/tree").cookie(jwt).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    @DisplayName("PATCH /api/folders/{id}/move - 200 puis 400 - Déplace un sous-arbre, refuse un cycle")
+    void move_shouldRewriteSubtreePaths_andRejectCycles() throws Exception {
+        DbUser user = persistUser("mover", "pass");
+        Cookie jwt = jwtCookieFor(user);
+
+        DbFolder source = new DbFolder("Source", null);
+        source.setUser(user);
+        source = folderRepository.save(source);
+
+        DbFolder leaf = new DbFolder("Feuille", source);
+        leaf.setUser(user);
+        leaf = folderRepository.save(leaf);
+
+        DbFolder target = new DbFolder("Cible", null);
+        target.setUser(user);
+        target = folderRepository.save(target);
+
+        FolderMoveDto input = new FolderMoveDto();
+        input.setParentId(target.getId());
+        mockMvc.perform(patch("/api/folders/" + source.getId() + "/move")
+                        .cookie(jwt)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(input)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.parentId", is(target.getId().intValue())))
+                .andExpect(jsonPath("$.hasChildren", is(true)));
+
+        // the descendant followed its ancestor
+        DbFolder movedLeaf = folderRepository.findById(leaf.getId()).orElseThrow();
+        assertEquals("/" + target.getId() + "/" + source.getId() + "/", movedLeaf.getPath());
+        assertEquals(2, movedLeaf.getDepth());
+
+        // a folder cannot go below its own descendant
+        input.setParentId(leaf.getId());
+        mockMvc.perform(patch("/api/folders/" + source.getId() + "/move")
+                        .cookie(jwt)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(input)))
+                .andExpect(status().isBadRequest());
+
+        // nor leave the bin without being restored (the leaf went there with its parent)
+        mockMvc.perform(delete("/api/folders/" + source.getId()).cookie(jwt)).andExpect(status().isNoContent());
+        input.setParentId(null);
+        mockMvc.perform(patch("/api/folders/" + leaf.getId() + "/move")
+                        .cookie(jwt)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(input)))
+                .andExpect(status().isBadRequest());
+        assertTrue(folderRepository.findById(leaf.getId()).orElseThrow().isDeleted());
+    }
+
+    @Test
+    @DisplayName("DELETE puis restore d'un dossier - tout le sous-arbre part et revient ensemble")
+    void deleteAndRestore_shouldCascadeOverTheSubtree() throws Exception {
+        DbUser user = persistUser("undertaker", "pass");
+        Cookie jwt = jwtCookieFor(user);
+
+        DbFolder root = new DbFolder("Manoir", null);
+        root.setUser(user);
+        root = folderRepository.save(root);
+        DbFolder cellar = new DbFolder("Cave", root);
+        cellar.setUser(user);
+        cellar = folderRepository.save(cellar);
+
+        DbNote inRoot = new DbNote("Plan", "plan", root);
+        inRoot.setUser(user);
+        inRoot = noteRepository.save(inRoot);
+        DbNote inCellar = new DbNote("Tonneau", "vin", cellar);
+        inCellar.setUser(user);
+        inCellar = noteRepository.save(inCellar);
+        DbNote binnedBefore = new DbNote("Vieille", "déjà jetée", cellar);
+        binnedBefore.setUser(user);
+        binnedBefore = noteRepository.save(binnedBefore);
+        mockMvc.perform(delete("/api/notes/" + binnedBefore.getId()).cookie(jwt)).andExpect(status().isNoContent());
+
+        mockMvc.perform(delete("/api/folders/" + root.getId()).cookie(jwt)).andExpect(status().isNoContent());
+
+        // the whole subtree is in the bin, under the batch of the folder
+        String batch = folderRepository.findById(root.getId()).orElseThrow().getDeletionBatch();
+        assertNotNull(batch);
+        assertEquals(batch, folderRepository.findById(cellar.getId()).orElseThrow().getDeletionBatch());
+        assertEquals(batch, noteRepository.findById(inRoot.getId()).orElseThrow().getDeletionBatch());
+        assertEquals(batch, noteRepository.findById(inCellar.getId()).orElseThrow().getDeletionBatch());
+        assertTrue(noteRepository.findById(inCellar.getId()).orElseThrow().isDeleted());
+
+        // the bin only lists what was binned on its own
+        mockMvc.perform(get("/api/corbeille/folders").cookie(jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].name", is("Manoir")));
+        mockMvc.perform(get("/api/corbeille").cookie(jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].title", is("Vieille")));
+
+        mockMvc.perform(post("/api/corbeille/folders/" + root.getId() + "/restore").cookie(jwt))
+                .andExpect(status().isOk());
+
+        assertFalse(folderRepository.findById(cellar.getId()).orElseThrow().isDeleted());
+        assertFalse(noteRepository.findById(inCellar.getId()).orElseThrow().isDeleted());
+        // binned earlier on its own: still in the bin
+        assertTrue(noteRepository.findById(binnedBefore.getId()).orElseThrow().isDeleted());
+        mockMvc.perform(get("/api/corbeille/folders").cookie(jwt)).andExpect(jsonPath("$.items", hasSize(0)));
+    }
+}
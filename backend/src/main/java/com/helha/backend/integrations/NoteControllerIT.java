@@ -8,11 +8,17 @@ import jakarta.servlet.http.Cookie;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
 
 // --- LES IMPORTS IMPORTANTS SONT ICI ---
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete; // N'oubliez pas delete !
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -69,7 +75,12 @@ public class NoteControllerIT extends AbstractSpookyIT {
         Cookie jwt = jwtCookieFor(user);
 
         // L'erreur venait d'ici car 'get' était le mauvais import
-        mockMvc.perform(get("/api/notes/export/zip").cookie(jwt))
+        // the archive is streamed: the headers go out first, the body on the async dispatch
+        MvcResult started = mockMvc.perform(get("/api/notes/export/zip").cookie(jwt))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
                 .andExpect(status().isOk())
                 .andExpect(header().string("Content-Type", "application/zip"));
     }
@@ -126,17 +137,100 @@ public class NoteControllerIT extends AbstractSpookyIT {
                 .andExpect(status().isNoContent());
 
         // 3. Verify it is in the bin
-        mockMvc.perform(get("/api/bin").cookie(jwt))
+        mockMvc.perform(get("/api/corbeille").cookie(jwt))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].title", is("Trash me")));
+                .andExpect(jsonPath("$.items[0].title", is("Trash me")))
+                .andExpect(jsonPath("$.items[0].content").doesNotExist());
 
         // 4. Restore
-        mockMvc.perform(post("/api/bin/notes/" + note.getId() + "/restore").cookie(jwt))
+        mockMvc.perform(post("/api/corbeille/notes/" + note.getId() + "/restore").cookie(jwt))
                 .andExpect(status().isOk());
 
         // 5. Verify it is NO LONGER in the bin
-        mockMvc.perform(get("/api/bin").cookie(jwt))
+        mockMvc.perform(get("/api/corbeille").cookie(jwt))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(0)));
+                .andExpect(jsonPath("$.items", hasSize(0)));
+    }
+
+    @Test
+    @DisplayName("POST /api/notes/import - 201 - Importe un ZIP de markdown avec ses dossiers")
+    void importZip_shouldRecreateFoldersAndNotes() throws Exception {
+        DbUser user = persistUser("vaultKeeper", "password123");
+        Cookie jwt = jwtCookieFor(user);
+
+        java.io.ByteArrayOutputStream archive = new java.io.ByteArrayOutputStream();
+        try (java.util.zip.ZipOutputStream zip = new java.util.zip.ZipOutputStream(archive)) {
+            String[][] entries = {
+                    {"Vault/Sorts.md", "# Sorts\n\nUn deux trois"},
+                    {"Vault/Potions/Philtre.md", "ligne 1\nligne 2"},
+                    {"Vault/.obsidian/app.json", "{}"},
+                    {"Vault/image.png", "png"}};
+            for (String[] entry : entries) {
+                zip.putNextEntry(new java.util.zip.ZipEntry(entry[0]));
+                zip.write(entry[1].getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+
+        mockMvc.perform(multipart("/api/notes/import")
+                        .file(new MockMultipartFile("file", "vault.zip", "application/zip", archive.toByteArray()))
+                        .cookie(jwt))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.foldersCreated", is(2)))
+                .andExpect(jsonPath("$.notesCreated", is(2)))
+                .andExpect(jsonPath("$.skippedEntries", is(2)));
+
+        DbNote potion = noteRepository.findAll().stream()
+                .filter(n -> n.getTitle().equals("Philtre")).findFirst().orElseThrow();
+        org.junit.jupiter.api.Assertions.assertEquals(2, potion.getLineCount());
+        DbFolder potions = folderRepository.findById(potion.getFolder().getId()).orElseThrow();
+        org.junit.jupiter.api.Assertions.assertEquals("Potions", potions.getName());
+        org.junit.jupiter.api.Assertions.assertEquals(1, potions.getDepth());
+
+        mockMvc.perform(multipart("/api/notes/import")
+                        .file(new MockMultipartFile("file", "broken.zip", "application/zip", "not a zip".getBytes()))
+                        .cookie(jwt))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/corbeille - 200 - Pages successives, plus récentes d'abord, sans doublon")
+    void binPages_shouldFollowTheCursor() throws Exception {
+        DbUser user = persistUser("pager", "pass");
+        Cookie jwt = jwtCookieFor(user);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            DbNote note = new DbNote("Jetée " + i, "contenu", null);
+            note.setUser(user);
+            note.setDeleted(true);
+            note.setBinRoot(true);
+            // two notes share a deletion date: the id breaks the tie
+            note.setDeletedAt(now.minusMinutes(i == 4 ? 3 : i));
+            noteRepository.save(note);
+        }
+
+        String first = mockMvc.perform(get("/api/corbeille?limit=2").cookie(jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].title", is("Jetée 0")))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(first).get("nextCursor").asText();
+
+        String second = mockMvc.perform(get("/api/corbeille?limit=2&cursor=" + cursor).cookie(jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].title", is("Jetée 2")))
+                .andReturn().getResponse().getContentAsString();
+        cursor = objectMapper.readTree(second).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/corbeille?limit=2&cursor=" + cursor).cookie(jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/api/corbeille?cursor=n0t-a-cursor").cookie(jwt))
+                .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,60 @@
+package com.helha.backend.integrations;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.helha.backend.application.dto.NoteCreationDto;
+import com.helha.backend.domain.models.DbUser;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DisplayName("Sync - Controller IT")
+public class SyncControllerIT extends AbstractSpookyIT {
+
+    @Test
+    @DisplayName("GET /api/sync?since=N - 200 - Seuls les changements après N, tombstones compris")
+    void sync_shouldReturnOnlyChangesSinceVersion() throws Exception {
+        DbUser user = persistUser("syncer", "pass");
+        Cookie jwt = jwtCookieFor(user);
+
+        NoteCreationDto input = new NoteCreationDto();
+        input.setTitle("Avant");
+        String created = mockMvc.perform(post("/api/notes")
+                        .cookie(jwt)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(input)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long noteId = objectMapper.readTree(created).get("id").asLong();
+
+        JsonNode snapshot = objectMapper.readTree(mockMvc.perform(get("/api/sync").cookie(jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.notes", hasSize(1)))
+                .andReturn().getResponse().getContentAsString());
+        long version = snapshot.get("version").asLong();
+
+        // nothing changed since the snapshot
+        mockMvc.perform(get("/api/sync").param("since", String.valueOf(version)).cookie(jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.notes", hasSize(0)))
+                .andExpect(jsonPath("$.removed", hasSize(0)));
+
+        // bin then permanent delete: the note comes back as a tombstone
+        mockMvc.perform(delete("/api/notes/" + noteId).cookie(jwt)).andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/corbeille/notes/" + noteId).cookie(jwt)).andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/sync").param("since", String.valueOf(version)).cookie(jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.removed", hasSize(1)))
+                .andExpect(jsonPath("$.removed[0].kind", is("NOTE")))
+                .andExpect(jsonPath("$.removed[0].id", is((int) noteId)));
+    }
+}
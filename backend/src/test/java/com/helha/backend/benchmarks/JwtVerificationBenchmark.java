@@ -0,0 +1,73 @@
+package com.helha.backend.benchmarks;
+
+import com.helha.backend.domain.models.DbUser;
+import com.helha.backend.infrastructure.cache.VerifiedTokenCache;
+import com.helha.backend.infrastructure.security.JwtUtils;
+import com.helha.backend.infrastructure.security.VerifiedToken;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.Key;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authentication of one request carrying a token: the former path (a new parser, and the token
+ * parsed and verified twice), the shared parser, and a hit in the verified-token cache.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.helha.backend.benchmarks.JwtVerificationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    // same key as JwtUtils, for the former path
+    private static final Key KEY = Keys.hmacShaKeyFor(
+            "UnePhraseSecreteTresLonguePourLeHackathonHelha2024BackendKey".getBytes());
+
+    private JwtUtils jwtUtils;
+    private VerifiedTokenCache cache;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        cache = new VerifiedTokenCache(new SimpleMeterRegistry(), 10_000);
+        DbUser user = new DbUser();
+        user.setId(42L);
+        user.setUsername("poltergeist");
+        user.setRole("USER");
+        token = jwtUtils.generateToken(user);
+        cache.get(token, jwtUtils::parseToken);
+    }
+
+    @Benchmark
+    public void legacyValidateThenExtract(Blackhole bh) {
+        bh.consume(Jwts.parserBuilder().setSigningKey(KEY).build().parseClaimsJws(token));
+        bh.consume(Jwts.parserBuilder().setSigningKey(KEY).build().parseClaimsJws(token).getBody().getSubject());
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> sharedParser() {
+        return jwtUtils.parseToken(token);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> cacheHit() {
+        return cache.get(token, jwtUtils::parseToken);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtVerificationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
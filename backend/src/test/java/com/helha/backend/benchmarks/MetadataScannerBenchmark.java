@@ -0,0 +1,64 @@
+package com.helha.backend.benchmarks;
+
+import com.helha.backend.domain.service.MetadataScanner;
+import com.helha.backend.domain.service.NoteMetadata;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-pass scanner against the former regex/split/getBytes implementation on a 1 MB note.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.helha.backend.benchmarks.MetadataScannerBenchmark
+ * (add -prof gc in the options to compare the allocation rates)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetadataScannerBenchmark {
+
+    @Param({"ascii", "accents"})
+    public String kind;
+
+    private String content;
+
+    @Setup
+    public void setUp() {
+        String[] words = "ascii".equals(kind)
+                ? new String[]{"zombie", "citrouille", "the", "of", "Halloween", "31", "octobre"}
+                : new String[]{"école", "hantée", "fantôme", "€", "😀", "squelette", "nuit"};
+        Random random = new Random(7);
+        StringBuilder sb = new StringBuilder(1 << 20);
+        while (sb.length() < (1 << 20)) {
+            sb.append(words[random.nextInt(words.length)]);
+            sb.append(random.nextInt(12) == 0 ? "\n" : " ");
+        }
+        content = sb.toString();
+    }
+
+    @Benchmark
+    public NoteMetadata singlePassScanner() {
+        return MetadataScanner.scan(content);
+    }
+
+    @Benchmark
+    public void legacyRegexSplit(Blackhole bh) {
+        bh.consume(content.trim().split("\\s+").length);
+        bh.consume(content.split("\r\n|\r|\n").length);
+        bh.consume(content.length());
+        bh.consume(content.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MetadataScannerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
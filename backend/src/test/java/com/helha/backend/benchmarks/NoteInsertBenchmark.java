@@ -0,0 +1,162 @@
+package com.helha.backend.benchmarks;
+
+import com.helha.backend.domain.models.IdGenerators;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts 100k notes through Hibernate, with the former IDENTITY ids (one round trip per row)
+ * against the pooled table ids that let Hibernate send JDBC batches (batch_size 50, ordered inserts).
+ * The persistence context is flushed and cleared every 1000 notes, like the import.
+ * By default the database is an in-memory H2 behind a local TCP server, so every statement pays a socket
+ * round trip like with MySQL. Point it at MySQL with -Dbench.jdbc.url=jdbc:mysql://...?rewriteBatchedStatements=true
+ * (-Dbench.jdbc.user, -Dbench.jdbc.password).
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.helha.backend.benchmarks.NoteInsertBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class NoteInsertBenchmark {
+
+    static final int NOTES = 100_000;
+    static final int FLUSH_EVERY = 1000;
+
+    @Param({"identity", "pooled"})
+    public String ids;
+
+    private SessionFactory sessionFactory;
+    private Server server;
+    private String url;
+
+    // the columns of DbNote, without the associations
+    @MappedSuperclass
+    public abstract static class BenchNote {
+        @Column(nullable = false)
+        String title;
+        @Column(columnDefinition = "TEXT")
+        String content;
+        int wordCount;
+        int lineCount;
+        int characterCount;
+        long sizeInBytes;
+        @Column(nullable = false)
+        LocalDateTime createdAt;
+        boolean deleted;
+        long syncVersion;
+
+        void fill(int i) {
+            title = "Note " + i;
+            content = "# Note " + i + "\n\nUn fantôme hante la citrouille numéro " + i + ".";
+            wordCount = 9;
+            lineCount = 3;
+            characterCount = content.length();
+            sizeInBytes = content.length() + 2;
+            createdAt = LocalDateTime.now();
+            syncVersion = 1;
+        }
+    }
+
+    @Entity
+    @Table(name = "bench_notes_identity")
+    public static class IdentityNote extends BenchNote {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+    }
+
+    @Entity
+    @Table(name = "bench_notes_pooled")
+    public static class PooledNote extends BenchNote {
+        @Id
+        @GeneratedValue(strategy = GenerationType.TABLE, generator = "bench_ids")
+        @TableGenerator(name = "bench_ids", table = "bench_id_generators", pkColumnName = IdGenerators.NAME_COLUMN,
+                valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "bench_notes",
+                allocationSize = IdGenerators.ALLOCATION_SIZE)
+        Long id;
+    }
+
+    @Setup(Level.Trial)
+    public void startServer() throws SQLException {
+        url = System.getProperty("bench.jdbc.url");
+        if (url == null) {
+            server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+            url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:bench;DB_CLOSE_DELAY=-1";
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        if (server != null) server.stop();
+    }
+
+    // fresh tables for every iteration
+    @Setup(Level.Iteration)
+    public void setUp() {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting("hibernate.connection.url", url)
+                .applySetting("hibernate.connection.username", System.getProperty("bench.jdbc.user", "sa"))
+                .applySetting("hibernate.connection.password", System.getProperty("bench.jdbc.password", ""))
+                .applySetting("hibernate.hbm2ddl.auto", "create-drop")
+                .applySetting("hibernate.jdbc.batch_size", String.valueOf(IdGenerators.ALLOCATION_SIZE))
+                .applySetting("hibernate.order_inserts", "true")
+                .applySetting("hibernate.show_sql", "false")
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(IdentityNote.class)
+                .addAnnotatedClass(PooledNote.class)
+                .buildMetadata()
+                .buildSessionFactory();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public int insert100kNotes() {
+        boolean pooled = ids.equals("pooled");
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            for (int i = 0; i < NOTES; i++) {
+                BenchNote note = pooled ? new PooledNote() : new IdentityNote();
+                note.fill(i);
+                session.persist(note);
+                if ((i + 1) % FLUSH_EVERY == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            session.getTransaction().commit();
+        }
+        return NOTES;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(NoteInsertBenchmark.class.getSimpleName()).build()).run();
+    }
+}
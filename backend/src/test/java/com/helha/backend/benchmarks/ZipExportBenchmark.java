@@ -0,0 +1,87 @@
+package com.helha.backend.benchmarks;
+
+import com.helha.backend.infrastructure.export.ParallelZipWriter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Sequential ZipOutputStream (former export) against ParallelZipWriter on a pool of one thread per core,
+ * for 10k and 100k markdown notes of about 2 KB. The archive goes to a null stream: only the CPU is measured.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.helha.backend.benchmarks.ZipExportBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ZipExportBenchmark {
+
+    @Param({"10000", "100000"})
+    public int notes;
+
+    private byte[][] contents;
+    private String[] names;
+    private ExecutorService pool;
+
+    @Setup
+    public void setUp() {
+        String[] words = {"zombie", "citrouille", "fantôme", "école", "hantée", "nuit", "31", "octobre", "#", "-"};
+        Random random = new Random(3);
+        contents = new byte[notes][];
+        names = new String[notes];
+        for (int i = 0; i < notes; i++) {
+            StringBuilder sb = new StringBuilder(2200);
+            while (sb.length() < 2048) {
+                sb.append(words[random.nextInt(words.length)]).append(random.nextInt(10) == 0 ? '\n' : ' ');
+            }
+            contents[i] = sb.toString().getBytes(StandardCharsets.UTF_8);
+            names[i] = "Dossier " + (i % 100) + "/Note " + i + ".md";
+        }
+        pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public void sequentialZipOutputStream() throws IOException {
+        ZipOutputStream zos = new ZipOutputStream(OutputStream.nullOutputStream());
+        for (int i = 0; i < notes; i++) {
+            zos.putNextEntry(new ZipEntry(names[i]));
+            zos.write(contents[i]);
+            zos.closeEntry();
+        }
+        zos.finish();
+    }
+
+    @Benchmark
+    public void parallelZipWriter() throws IOException {
+        try (ParallelZipWriter zip = new ParallelZipWriter(OutputStream.nullOutputStream(), pool, 64, Deflater.DEFAULT_COMPRESSION)) {
+            for (int i = 0; i < notes; i++) {
+                zip.addFile(names[i], contents[i]);
+            }
+            zip.finish();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ZipExportBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,59 @@
+package com.helha.backend.domain.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MetadataScannerTest {
+
+    // the former MetadataUtils formulas, kept as the reference
+    private static NoteMetadata legacy(String content) {
+        int words = content == null || content.trim().isEmpty() ? 0 : content.trim().split("\\s+").length;
+        int lines = content == null || content.isEmpty() ? 0 : content.split("\r\n|\r|\n").length;
+        int characters = content == null ? 0 : content.length();
+        long bytes = content == null ? 0 : content.getBytes(StandardCharsets.UTF_8).length;
+        return new NoteMetadata(words, lines, characters, bytes);
+    }
+
+    private static void assertSameAsLegacy(String content) {
+        assertEquals(legacy(content), MetadataScanner.scan(content), () -> "content: " + escape(content));
+    }
+
+    @Test
+    void edgeCases_matchLegacyResults() {
+        String[] samples = {
+                null, "", " ", "\n", "\r\n", "\n\n\n", "a", " a ", "a b", "a  \t b\n",
+                "# Alerte Zombie\nIls sont partout dans l'école !",
+                "line1\r\nline2\rline3\nline4", "\r\r\n\n", "text\n\n\n", "\ntext", "\r\n\r\ntext\r\n",
+                "a\u0000b", "\u0000", " \u0001 a \u0001 ", "a \u0001 b", "\u000B\fa\f\u000B",
+                " a ", "é€😀", "\uD83D", "x\uDE00y", "\uD83D😀", "\uDE00\uD83D",
+                "mot mot", "\u001Fa\u001F b"
+        };
+        for (String sample : samples) assertSameAsLegacy(sample);
+    }
+
+    @Test
+    void randomContents_matchLegacyResults() {
+        char[] alphabet = {'a', 'Z', '1', ' ', ' ', '\t', '\n', '\n', '\r', '\u000B', '\f', '\u0000', '\u0001',
+                'é', '€', ' ', ' ', '\uD83D', '\uDE00'};
+        Random random = new Random(42);
+        for (int run = 0; run < 20_000; run++) {
+            char[] chars = new char[random.nextInt(40)];
+            for (int i = 0; i < chars.length; i++) chars[i] = alphabet[random.nextInt(alphabet.length)];
+            assertSameAsLegacy(new String(chars));
+        }
+    }
+
+    private static String escape(String content) {
+        if (content == null) return "null";
+        StringBuilder out = new StringBuilder();
+        for (char c : content.toCharArray()) {
+            if (c < 0x20 || c > 0x7E) out.append(String.format("\\u%04X", (int) c));
+            else out.append(c);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,57 @@
+package com.helha.backend.domain.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NoteContentEditorTest {
+
+    private static final char[] ALPHABET = {'a', 'b', 'Z', '7', ' ', ' ', ' ', '\t', '\n', '\n', '\r', '\r',
+            '\u000B', '\f', '\u0000', '\u0001', 'é', '€', '\uD83D', '\uDE00'};
+
+    private static String randomText(Random random, int maxLength) {
+        char[] chars = new char[random.nextInt(maxLength + 1)];
+        for (int i = 0; i < chars.length; i++) chars[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        return new String(chars);
+    }
+
+    @Test
+    void randomEdits_matchFullRecount() {
+        Random random = new Random(2024);
+        for (int run = 0; run < 5_000; run++) {
+            String initial = randomText(random, 60);
+            NoteContentEditor editor = new NoteContentEditor(initial, MetadataScanner.scan(initial));
+            StringBuilder expected = new StringBuilder(initial);
+
+            for (int step = 0; step < 12; step++) {
+                int offset = random.nextInt(expected.length() + 1);
+                int deleteLength = random.nextInt(Math.min(8, expected.length() - offset) + 1);
+                String text = randomText(random, 6);
+                editor.apply(offset, deleteLength, text);
+                expected.replace(offset, offset + deleteLength, text);
+
+                String content = expected.toString();
+                assertEquals(content, editor.getContent());
+                assertEquals(MetadataScanner.scan(content), editor.getMetadata(),
+                        "run " + run + ", step " + step);
+            }
+        }
+    }
+
+    @Test
+    void staleMetadata_isRecountedFromTheContent() {
+        NoteContentEditor editor = new NoteContentEditor("hello world", new NoteMetadata(2, 1, 0, 0));
+        editor.apply(5, 6, " there, you");
+        assertEquals(MetadataScanner.scan("hello there, you"), editor.getMetadata());
+    }
+
+    @Test
+    void editOutsideTheContent_isRejected() {
+        NoteContentEditor editor = new NoteContentEditor("abc", MetadataScanner.scan("abc"));
+        assertThrows(IllegalArgumentException.class, () -> editor.apply(2, 2, "x"));
+        assertThrows(IllegalArgumentException.class, () -> editor.apply(-1, 0, "x"));
+    }
+}
@@ -0,0 +1,75 @@
+package com.helha.backend.infrastructure.cache;
+
+import com.helha.backend.infrastructure.security.AuthenticatedUser;
+import com.helha.backend.infrastructure.security.VerifiedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VerifiedTokenCacheTest {
+
+    private static final AuthenticatedUser USER = new AuthenticatedUser(1L, "wraith", "USER");
+
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(new SimpleMeterRegistry(), 100);
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    private Function<String, Optional<VerifiedToken>> verifier(Instant expiresAt) {
+        return token -> {
+            verifications.incrementAndGet();
+            return token.startsWith("good") ? Optional.of(new VerifiedToken(USER, expiresAt)) : Optional.empty();
+        };
+    }
+
+    @Test
+    void sameToken_isVerifiedOnce() {
+        var verifier = verifier(Instant.now().plus(Duration.ofHours(1)));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(USER, cache.get("good-token", verifier).orElseThrow().principal());
+        }
+        cache.get("good-other", verifier);
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void invalidToken_isNotCached() {
+        var verifier = verifier(Instant.now().plus(Duration.ofHours(1)));
+
+        assertTrue(cache.get("forged", verifier).isEmpty());
+        assertTrue(cache.get("forged", verifier).isEmpty());
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void entry_expiresWithItsToken() throws InterruptedException {
+        var verifier = verifier(Instant.now().plusMillis(200));
+
+        cache.get("good-short", verifier);
+        cache.get("good-short", verifier);
+        assertEquals(1, verifications.get());
+
+        Thread.sleep(300);
+        cache.get("good-short", verifier);
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void tokenWithoutExpiration_isVerifiedEveryTime() {
+        var verifier = verifier(null);
+
+        cache.get("good-forever", verifier);
+        cache.get("good-forever", verifier);
+
+        assertEquals(2, verifications.get());
+    }
+}
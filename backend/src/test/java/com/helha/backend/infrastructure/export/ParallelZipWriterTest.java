@@ -0,0 +1,119 @@
+package com.helha.backend.infrastructure.export;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelZipWriterTest {
+
+    private static ExecutorService pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdownNow();
+    }
+
+    private static byte[] archive(List<String> names, List<byte[]> contents, int maxInFlight) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParallelZipWriter zip = new ParallelZipWriter(out, pool, maxInFlight, Deflater.DEFAULT_COMPRESSION)) {
+            for (int i = 0; i < names.size(); i++) {
+                if (contents.get(i) == null) zip.addDirectory(names.get(i));
+                else zip.addFile(names.get(i), contents.get(i));
+            }
+            zip.finish();
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    void entries_areReadBackInOrder_andIdentical() throws IOException {
+        List<String> names = new ArrayList<>();
+        List<byte[]> contents = new ArrayList<>();
+        names.add("Racine/");
+        contents.add(null);
+        names.add("Racine/vide.md");
+        contents.add(new byte[0]);
+        names.add("Racine/école 😀.md");
+        contents.add("# Alerte Zombie\nIls sont partout dans l'école !\n".repeat(200).getBytes(StandardCharsets.UTF_8));
+        byte[] noise = new byte[50_000];
+        new Random(1).nextBytes(noise);
+        names.add("Racine/bruit.bin");
+        contents.add(noise);
+        for (int i = 0; i < 300; i++) {
+            names.add("note-" + i + ".md");
+            contents.add(("contenu " + i + " ").repeat(i).getBytes(StandardCharsets.UTF_8));
+        }
+
+        byte[] zip = archive(names, contents, 8);
+
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < names.size(); i++) {
+                ZipEntry entry = in.getNextEntry();
+                assertEquals(names.get(i), entry.getName());
+                assertEquals(contents.get(i) == null, entry.isDirectory());
+                byte[] expected = contents.get(i) == null ? new byte[0] : contents.get(i);
+                assertArrayEquals(expected, in.readAllBytes());
+            }
+            assertEquals(null, in.getNextEntry());
+        }
+    }
+
+    @Test
+    void sameInput_givesTheSameBytes() throws IOException {
+        List<String> names = new ArrayList<>();
+        List<byte[]> contents = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            names.add("n" + i + ".md");
+            contents.add(("texte " + i).repeat(50).getBytes(StandardCharsets.UTF_8));
+        }
+        assertArrayEquals(archive(names, contents, 1), archive(names, contents, 32));
+    }
+
+    @Test
+    void moreThan65535Entries_useZip64Records() throws IOException {
+        int count = 70_000;
+        List<String> names = new ArrayList<>(count);
+        List<byte[]> contents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(i + ".md");
+            contents.add(new byte[]{(byte) 'x'});
+        }
+        Path file = Files.createTempFile("zip64", ".zip");
+        try {
+            Files.write(file, archive(names, contents, 64));
+            try (ZipFile zip = new ZipFile(file.toFile())) {
+                assertEquals(count, zip.size());
+                ZipEntry last = zip.getEntry((count - 1) + ".md");
+                assertTrue(last != null);
+                assertArrayEquals(new byte[]{(byte) 'x'}, zip.getInputStream(last).readAllBytes());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.helha.backend.infrastructure.export;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RangeFileSenderTest {
+
+    private static final String ETAG = "\"export-1\"";
+
+    @TempDir
+    Path directory;
+
+    private byte[] data() {
+        byte[] data = new byte[1000];
+        for (int i = 0; i < data.length; i++) data[i] = (byte) i;
+        return data;
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+        Path file = directory.resolve("export.zip");
+        Files.write(file, data());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RangeFileSender.send(request, response, file, "application/zip", "export.zip", ETAG);
+        return response;
+    }
+
+    @Test
+    void noRange_sendsTheWholeFile() throws Exception {
+        MockHttpServletResponse response = send(new MockHttpServletRequest());
+
+        assertEquals(200, response.getStatus());
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertEquals(ETAG, response.getHeader("ETag"));
+        assertArrayEquals(data(), response.getContentAsByteArray());
+    }
+
+    @Test
+    void singleRange_sendsThePartialContent() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Range", "bytes=100-199");
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 100-199/1000", response.getHeader("Content-Range"));
+        assertEquals(100, response.getContentLength());
+        assertArrayEquals(Arrays.copyOfRange(data(), 100, 200), response.getContentAsByteArray());
+    }
+
+    @Test
+    void suffixRange_sendsTheEndOfTheFile() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Range", "bytes=-10");
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 990-999/1000", response.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(data(), 990, 1000), response.getContentAsByteArray());
+    }
+
+    @Test
+    void rangeBeyondTheEnd_isNotSatisfiable() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Range", "bytes=5000-");
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */1000", response.getHeader("Content-Range"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void staleIfRange_sendsTheWholeFile() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Range", "bytes=100-199");
+        request.addHeader("If-Range", "\"export-0\"");
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader("Content-Range"));
+        assertArrayEquals(data(), response.getContentAsByteArray());
+    }
+
+    @Test
+    void sendfileSupport_handsTheRangeToTheConnector() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=100-199");
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(100L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(200L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+}
@@ -0,0 +1,158 @@
+package com.helha.backend.infrastructure.pdf;
+
+import com.lowagie.text.pdf.PdfDictionary;
+import com.lowagie.text.pdf.PdfIndirectReference;
+import com.lowagie.text.pdf.PdfName;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MarkdownPdfWriterTest {
+
+    private static PdfStyles styles;
+
+    @BeforeAll
+    static void loadStyles() throws IOException {
+        styles = new PdfStyles();
+    }
+
+    private static String text(byte[] pdf) throws IOException {
+        PdfReader reader = new PdfReader(pdf);
+        PdfTextExtractor extractor = new PdfTextExtractor(reader);
+        StringBuilder text = new StringBuilder();
+        for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+            text.append(extractor.getTextFromPage(page)).append('\n');
+        }
+        reader.close();
+        return text.toString();
+    }
+
+    // entries of one level of the outline, read from the catalog (First, then Next)
+    private static List<PdfDictionary> outlineItems(PdfDictionary parent) {
+        List<PdfDictionary> items = new ArrayList<>();
+        for (PdfDictionary item = parent.getAsDict(PdfName.FIRST); item != null; item = item.getAsDict(PdfName.NEXT)) {
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static String title(PdfDictionary item) {
+        return item.getAsString(PdfName.TITLE).toUnicodeString();
+    }
+
+    @Test
+    void markdown_isRenderedWithoutItsMarkup() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MarkdownPdfWriter pdf = new MarkdownPdfWriter(out, styles, "Grimoire")) {
+            pdf.beginSection(null, "Grimoire", 1, false);
+            pdf.writeMarkdown("""
+                    # Sortilèges
+
+                    Un texte **gras**, *penché* et du `code`,
+                    avec un [lien](https://example.org) et un nom_de_variable.
+
+                    - premier
+                      - imbriqué
+                    1. numéroté
+                    > citation
+
+                    ```
+                    int x = 42;
+                    ```
+                    ---
+                    | a | b |
+                    |---|---|
+                    | 1 | 2 |
+                    """);
+        }
+
+        String text = text(out.toByteArray());
+        assertTrue(text.contains("Sortilèges"), text);
+        assertTrue(text.contains("Un texte gras, penché et du code, avec un lien et un nom_de_variable."), text);
+        assertTrue(text.contains("premier") && text.contains("imbriqué") && text.contains("1. numéroté"), text);
+        assertTrue(text.contains("citation") && text.contains("int x = 42;") && text.contains("| 1 | 2 |"), text);
+        assertFalse(text.contains("**") || text.contains("```") || text.contains("|---|"), text);
+    }
+
+    @Test
+    void sections_getNestedBookmarks() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MarkdownPdfWriter pdf = new MarkdownPdfWriter(out, styles, "Crypte")) {
+            MarkdownPdfWriter.Section folder = pdf.beginSection(null, "Crypte", 1, false);
+            pdf.beginSection(folder, "Note A", 2, false);
+            pdf.writeMarkdown("contenu A");
+            pdf.beginSection(folder, "Note B", 2, true);
+            pdf.writeMarkdown("contenu B");
+        }
+
+        PdfReader reader = new PdfReader(out.toByteArray());
+        assertEquals(2, reader.getNumberOfPages());
+        List<PdfDictionary> folders = outlineItems(reader.getCatalog().getAsDict(PdfName.OUTLINES));
+        assertEquals(1, folders.size());
+        assertEquals("Crypte", title(folders.get(0)));
+        List<PdfDictionary> notes = outlineItems(folders.get(0));
+        assertEquals(List.of("Note A", "Note B"), notes.stream().map(MarkdownPdfWriterTest::title).toList());
+        // the note that starts on a new page points to the second page
+        PdfIndirectReference target = (PdfIndirectReference) notes.get(1).getAsArray(PdfName.DEST).getPdfObject(0);
+        assertEquals(reader.getPageOrigRef(2).getNumber(), target.getNumber());
+        reader.close();
+    }
+
+    @Test
+    void pages_areWrittenWhileTheDocumentGrows() throws IOException {
+        // bytes reaching the stream before the document is closed: finished pages are not kept
+        Map<String, Long> written = new HashMap<>();
+        OutputStream counting = new OutputStream() {
+            long count;
+
+            @Override
+            public void write(int b) {
+                written.put("bytes", ++count);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                count += len;
+                written.put("bytes", count);
+            }
+        };
+
+        String note = "Une ligne de texte assez longue pour remplir la page. ".repeat(40);
+        long beforeClose;
+        MarkdownPdfWriter pdf = new MarkdownPdfWriter(counting, styles, "Gros dossier");
+        MarkdownPdfWriter.Section folder = pdf.beginSection(null, "Gros dossier", 1, false);
+        for (int i = 0; i < 200; i++) {
+            pdf.beginSection(folder, "Note " + i, 2, i > 0);
+            pdf.writeMarkdown(note);
+        }
+        beforeClose = written.getOrDefault("bytes", 0L);
+        pdf.close();
+        long total = written.get("bytes");
+
+        assertTrue(beforeClose > total / 2, beforeClose + " of " + total + " bytes written before close");
+    }
+
+    @Test
+    void emptySection_stillMakesAValidDocument() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MarkdownPdfWriter pdf = new MarkdownPdfWriter(out, styles, "Vide")) {
+            pdf.beginSection(null, null, 1, false);
+            pdf.writeMarkdown("");
+        }
+
+        assertTrue(text(out.toByteArray()).contains("Sans titre"));
+    }
+}
@@ -0,0 +1,118 @@
+package com.helha.backend.infrastructure.ratelimit;
+
+import com.helha.backend.controllers.exceptions.GenericTooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    // 3 writes at once, then one every 20 seconds; exports not limited
+    private final RateLimiter limiter = new RateLimiter(registry, Map.of(
+            RateLimitPolicy.WRITE, new RateLimiter.Rule(3, Duration.ofMinutes(1)),
+            RateLimitPolicy.EXPORT, new RateLimiter.Rule(0, Duration.ofMinutes(1))), 100, now::get);
+
+    private double requests(String outcome) {
+        return registry.get("http.rate-limit.requests").tag("policy", "write").tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    void burst_thenRefusedUntilATokenIsBack() {
+        for (int i = 0; i < 3; i++) limiter.acquire(RateLimitPolicy.WRITE, 1L);
+
+        GenericTooManyRequestsException refused =
+                assertThrows(GenericTooManyRequestsException.class, () -> limiter.acquire(RateLimitPolicy.WRITE, 1L));
+        assertEquals(Duration.ofSeconds(20), refused.getRetryAfter());
+
+        // 5 seconds later: 15 left, rounded up
+        now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        refused = assertThrows(GenericTooManyRequestsException.class, () -> limiter.acquire(RateLimitPolicy.WRITE, 1L));
+        assertEquals(Duration.ofSeconds(15), refused.getRetryAfter());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(15));
+        assertDoesNotThrow(() -> limiter.acquire(RateLimitPolicy.WRITE, 1L));
+        assertThrows(GenericTooManyRequestsException.class, () -> limiter.acquire(RateLimitPolicy.WRITE, 1L));
+
+        assertEquals(4.0, requests("allowed"));
+        assertEquals(3.0, requests("rejected"));
+    }
+
+    @Test
+    void buckets_arePerUser_andIdleOnesRefill() {
+        for (int i = 0; i < 3; i++) limiter.acquire(RateLimitPolicy.WRITE, 1L);
+        assertDoesNotThrow(() -> limiter.acquire(RateLimitPolicy.WRITE, 2L));
+
+        // a whole period later the bucket is full again, not more
+        now.addAndGet(TimeUnit.MINUTES.toNanos(10));
+        for (int i = 0; i < 3; i++) limiter.acquire(RateLimitPolicy.WRITE, 1L);
+        assertThrows(GenericTooManyRequestsException.class, () -> limiter.acquire(RateLimitPolicy.WRITE, 1L));
+    }
+
+    @Test
+    void policyWithoutCapacity_isNotLimited() {
+        for (int i = 0; i < 1000; i++) limiter.acquire(RateLimitPolicy.EXPORT, 1L);
+    }
+
+    @Test
+    void concurrentRequests_takeExactlyTheCapacity() throws Exception {
+        RateLimiter shared = new RateLimiter(registry, Map.of(
+                RateLimitPolicy.WRITE, new RateLimiter.Rule(500, Duration.ofHours(1))), 100, now::get);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 200; i++) {
+                        try {
+                            shared.acquire(RateLimitPolicy.WRITE, 7L);
+                            allowed.incrementAndGet();
+                        } catch (GenericTooManyRequestsException ignored) {
+                            // over the limit
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(500, allowed.get());
+    }
+
+    @Test
+    void policies_matchTheWriteAndExportEndpoints() {
+        assertEquals(Optional.of(RateLimitPolicy.WRITE), RateLimitPolicy.of("PUT", "/api/notes/12"));
+        assertEquals(Optional.of(RateLimitPolicy.WRITE), RateLimitPolicy.of("PATCH", "/api/notes/12/content"));
+        assertEquals(Optional.of(RateLimitPolicy.WRITE), RateLimitPolicy.of("DELETE", "/api/corbeille"));
+        assertEquals(Optional.of(RateLimitPolicy.EXPORT), RateLimitPolicy.of("GET", "/api/notes/export/zip"));
+        assertEquals(Optional.of(RateLimitPolicy.EXPORT), RateLimitPolicy.of("GET", "/api/folders/3/export/pdf"));
+        assertEquals(Optional.of(RateLimitPolicy.EXPORT), RateLimitPolicy.of("POST", "/api/exports"));
+        assertEquals(Optional.of(RateLimitPolicy.EXPORT), RateLimitPolicy.of("GET", "/api/exports/abc/download"));
+
+        assertEquals(Optional.empty(), RateLimitPolicy.of("GET", "/api/notes/12"));
+        assertEquals(Optional.empty(), RateLimitPolicy.of("GET", "/api/exports/abc"));
+        assertEquals(Optional.empty(), RateLimitPolicy.of("POST", "/api/auth/login"));
+    }
+}
@@ -0,0 +1,133 @@
+package com.helha.backend.infrastructure.scheduling;
+
+import com.helha.backend.domain.repositories.IJobLeaseRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// embedded H2, several "instances" sharing the same table; no test transaction:
+// every lease update commits on its own, like between real instances
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JobLeasesTest {
+
+    private static final Duration TTL = Duration.ofSeconds(30);
+
+    @Autowired
+    private IJobLeaseRepository leaseRepository;
+
+    private JobLeases instance(String id) {
+        return new JobLeases(leaseRepository, id);
+    }
+
+    @Test
+    void lease_isExclusiveUntilReleased() {
+        JobLeases a = instance("node-a");
+        JobLeases b = instance("node-b");
+
+        Optional<JobLease> held = a.tryAcquire("exclusive", TTL);
+        assertTrue(held.isPresent());
+        assertTrue(b.tryAcquire("exclusive", TTL).isEmpty());
+
+        held.get().close();
+        assertTrue(b.tryAcquire("exclusive", TTL).isPresent());
+    }
+
+    @Test
+    void heartbeat_keepsTheLeasePastItsTtl() throws InterruptedException {
+        Duration ttl = Duration.ofMillis(300);
+        JobLease lease = instance("node-a").tryAcquire("heartbeat", ttl).orElseThrow();
+        for (int i = 0; i < 4; i++) {
+            Thread.sleep(120);
+            lease.keepAlive();
+        }
+        assertTrue(instance("node-b").tryAcquire("heartbeat", ttl).isEmpty());
+    }
+
+    @Test
+    void expiredLease_isTakenOver_andTheOldHolderStops() throws InterruptedException {
+        Duration ttl = Duration.ofMillis(100);
+        JobLease dead = instance("node-a").tryAcquire("takeover", ttl).orElseThrow();
+        Thread.sleep(200);
+
+        JobLease taken = instance("node-b").tryAcquire("takeover", TTL).orElseThrow();
+        assertThrows(JobLease.LeaseLostException.class, dead::keepAlive);
+
+        // the old holder closing late must not free the lease of the new one
+        dead.close();
+        assertTrue(instance("node-c").tryAcquire("takeover", TTL).isEmpty());
+        taken.close();
+    }
+
+    @Test
+    void concurrentInstances_onlyOneAcquires() throws Exception {
+        int instances = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(instances);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < instances; i++) {
+                JobLeases node = instance("node-" + i);
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return node.tryAcquire("race", TTL).isPresent();
+                }));
+            }
+            start.countDown();
+            int winners = 0;
+            for (Future<Boolean> result : results) if (result.get()) winners++;
+            assertEquals(1, winners);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void creatingAnExistingRow_failsWithoutTouchingTheLease() {
+        JobLease held = instance("node-a").tryAcquire("created", TTL).orElseThrow();
+
+        // what a late instance would do after seeing no row
+        assertThrows(DataIntegrityViolationException.class, () -> leaseRepository.create("created"));
+
+        assertTrue(instance("node-b").tryAcquire("created", TTL).isEmpty());
+        held.close();
+    }
+
+    @Test
+    void completedLease_isSkippedForTheSameRun() {
+        LocalDateTime runStart = LocalDateTime.now().minusMinutes(1);
+        JobLeases a = instance("node-a");
+        JobLeases b = instance("node-b");
+
+        assertFalse(a.isCompletedSince("nightly", runStart));
+        a.tryAcquire("nightly", TTL, runStart).orElseThrow().complete();
+
+        assertTrue(b.isCompletedSince("nightly", runStart));
+        assertTrue(b.tryAcquire("nightly", TTL, runStart).isEmpty());
+        // next run
+        LocalDateTime nextRun = LocalDateTime.now().plusSeconds(1);
+        assertFalse(b.isCompletedSince("nightly", nextRun));
+        assertTrue(b.tryAcquire("nightly", TTL, nextRun).isPresent());
+    }
+}
@@ -0,0 +1,82 @@
+package com.helha.backend.infrastructure.security;
+
+import com.helha.backend.controllers.exceptions.GenericTooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void hashes_runOnThePoolAndAreTimed() {
+        PasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), pool, registry);
+
+        String hash = encoder.encode("boo");
+
+        assertTrue(encoder.matches("boo", hash));
+        assertFalse(encoder.matches("hoo", hash));
+        assertEquals(1, registry.get("auth.password.hash").tag("operation", "encode").timer().count());
+        assertEquals(2, registry.get("auth.password.hash").tag("operation", "matches").timer().count());
+        assertEquals(3, pool.getTaskCount());
+    }
+
+    @Test
+    void saturatedPool_answers429() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking, pool, registry);
+
+        // one hash running, one waiting in the queue: the third is refused
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        while (pool.getQueue().isEmpty()) Thread.onSpinWait();
+
+        GenericTooManyRequestsException refused =
+                assertThrows(GenericTooManyRequestsException.class, () -> encoder.encode("third"));
+        assertEquals(429, refused.getStatusCode().value());
+        assertFalse(refused.getRetryAfter().isNegative());
+        assertEquals(1.0, registry.get("auth.password.rejected").counter().count());
+
+        // the waiting ones complete once the pool is free again
+        release.countDown();
+        String first = running.get(5, TimeUnit.SECONDS);
+        String second = queued.get(5, TimeUnit.SECONDS);
+        assertTrue(encoder.matches("first", first));
+        assertTrue(encoder.matches("second", second));
+    }
+}
@@ -0,0 +1,48 @@
+package com.helha.backend.infrastructure.security;
+
+import com.helha.backend.domain.models.DbUser;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtUtilsTest {
+
+    private final JwtUtils jwtUtils = new JwtUtils();
+
+    private static DbUser user(Long id, String username, String role) {
+        DbUser user = new DbUser();
+        user.setId(id);
+        user.setUsername(username);
+        user.setRole(role);
+        return user;
+    }
+
+    @Test
+    void token_carriesTheIdAndTheRole() {
+        String token = jwtUtils.generateToken(user(42L, "casper", "ADMIN"));
+
+        VerifiedToken verified = jwtUtils.parseToken(token).orElseThrow();
+        AuthenticatedUser principal = verified.principal();
+        assertEquals(new AuthenticatedUser(42L, "casper", "ADMIN"), principal);
+        assertTrue(verified.expiresAt().isAfter(Instant.now().plus(Duration.ofHours(23))));
+        assertEquals("casper", principal.getName());
+        assertEquals("ROLE_ADMIN", principal.authorities().get(0).getAuthority());
+    }
+
+    @Test
+    void tamperedOrMalformedToken_isRejected() {
+        String token = jwtUtils.generateToken(user(7L, "boo", "USER"));
+        // changes a character in the middle of the signature (the last one also holds padding bits)
+        int at = token.length() - 10;
+        String tampered = token.substring(0, at) + (token.charAt(at) == 'A' ? 'B' : 'A') + token.substring(at + 1);
+
+        assertEquals(Optional.empty(), jwtUtils.parseToken(tampered));
+        assertTrue(jwtUtils.parseToken("not.a.jwt").isEmpty());
+        assertTrue(jwtUtils.parseToken("").isEmpty());
+    }
+}
@@ -12,7 +12,6 @@ import {
 import { useParams } from "react-router-dom";
 import { Milkdown, MilkdownProvider, useEditor } from "@milkdown/react";
 import { Crepe } from "@milkdown/crepe";
-import { jsPDF } from "jspdf";
 import NoteService from "../services/NoteService";
 import "@milkdown/crepe/theme/common/style.css";
 import "@milkdown/crepe/theme/frame-dark.css";
@@ -201,73 +200,31 @@ const MarkdownPage = () => {
 
   /**
    * Exports the current note as a PDF file.
-   * Handles markdown stripping and formatting.
+   * The PDF is rendered by the server from the saved markdown:
+   * pending changes are saved first.
    * Sets error messages on failure.
    * Manages exporting state.
    */
   const handleExportPdf = useCallback(async () => {
+    if (!noteId) return;
     setIsExportingPdf(true);
     setErrorMessage(null);
 
-    const stripMarkdown = (value: string) => {
-      let result = value;
-      result = result.replace(/```[\s\S]*?```/g, " ");
-      result = result.replace(/`[^`]*`/g, " ");
-      result = result.replace(/!\[[^\]]*]\([^)]*\)/g, " ");
-      result = result.replace(/\[([^\]]+)\]\([^)]*\)/g, "$1");
-      result = result.replace(/^#{1,6}\s+/gm, "");
-      result = result.replace(/^>\s?/gm, "");
-      result = result.replace(/^(\s*[-*+]\s+|\s*\d+\.\s+)/gm, "");
-      result = result.replace(/[*_~]/g, "");
-      result = result.replace(/<[^>]+>/g, " ");
-      return result;
-    };
-
     const safeTitle = (title || "note").trim().replace(/[<>:"/\\|?*]+/g, "_");
-    const plainText = stripMarkdown(content || "");
-
-    /**
-     * Generates a PDF from the note content.
-     * Handles pagination and text wrapping.
-     * Saves the PDF file with a safe filename.
-     * Catches and sets error messages on failure.
-     * Finally, resets the exporting state.
-     */
-    try {
-      const doc = new jsPDF({ unit: "mm", format: "a4", orientation: "portrait" });
-      doc.setFillColor(255, 255, 255);
-      doc.rect(0, 0, 210, 297, "F");
-      doc.setTextColor(0, 0, 0);
-      doc.setFont("times", "normal");
-
-      const marginX = 15;
-      let cursorY = 20;
-
-      const titleText = title || "Note";
-      doc.setFont("times", "bold");
-      doc.setFontSize(16);
-      const titleLines = doc.splitTextToSize(titleText, 180);
-      titleLines.forEach((line: string) => {
-        doc.text(line, marginX, cursorY);
-        cursorY += 7;
-      });
 
-      cursorY += 4;
-      doc.setFont("times", "normal");
-      doc.setFontSize(12);
-      const bodyLines = doc.splitTextToSize(plainText, 180);
-      bodyLines.forEach((line: string) => {
-        if (cursorY > 280) {
-          doc.addPage();
-          doc.setFillColor(255, 255, 255);
-          doc.rect(0, 0, 210, 297, "F");
-          cursorY = 20;
-        }
-        doc.text(line, marginX, cursorY);
-        cursorY += 6;
-      });
-
-      doc.save(`${safeTitle || "note"}.pdf`);
+    try {
+      if (hasUnsavedChanges) {
+        await handleSave();
+      }
+      const blob = await NoteService.exportPdf(noteId);
+      const url = window.URL.createObjectURL(blob);
+      const link = document.createElement("a");
+      link.href = url;
+      link.download = `${safeTitle || "note"}.pdf`;
+      document.body.appendChild(link);
+      link.click();
+      link.remove();
+      window.URL.revokeObjectURL(url);
     } catch (error: unknown) {
       setErrorMessage(
         error instanceof Error ? error.message : "Impossible d'exporter le PDF."
@@ -275,7 +232,7 @@ const MarkdownPage = () => {
     } finally {
       setIsExportingPdf(false);
     }
-  }, [title, content]);
+  }, [noteId, title, hasUnsavedChanges, handleSave]);
 
   /**
    * Exports all notes as a ZIP archive.
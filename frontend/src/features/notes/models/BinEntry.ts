@@ -0,0 +1,42 @@
+/**
+ * Entries of the bin: headers only, the content of a note is not sent.
+ */
+export interface BinNote {
+    id: number;
+    title: string;
+    folderId?: number;       // folder it was in (null: root)
+    deletedAt: string;       // ISO date
+    sizeInBytes: number;
+}
+
+export interface BinFolder {
+    id: number;
+    name: string;
+    parentId?: number;
+    deletedAt: string;
+}
+
+/**
+ * One page of the bin, most recently deleted first.
+ * nextCursor is passed back to get the following page; null on the last one.
+ */
+export interface BinPageResult<T> {
+    items: T[];
+    nextCursor?: string | null;
+}
+
+/**
+ * Selection for the bulk operations of the bin.
+ */
+export interface BinSelection {
+    noteIds?: number[];
+    folderIds?: number[];
+}
+
+/**
+ * What a bulk operation restored or deleted (including what came along with the folders).
+ */
+export interface BinOperationResult {
+    notes: number;
+    folders: number;
+}
@@ -1,7 +1,6 @@
 import { useEffect, useState } from "react";
 import BinService from "../services/BinService";
-import type { Note } from "../models/Note";
-import type { Folder } from "../models/Folder";
+import type { BinFolder, BinNote } from "../models/BinEntry";
 import { FontAwesomeIcon } from "@fortawesome/react-fontawesome";
 import { faArrowLeft, faTrash, faClockRotateLeft } from "@fortawesome/free-solid-svg-icons";
 import { useNavigate } from "react-router-dom";
@@ -9,8 +8,11 @@ import { useModal } from "../../../shared/context/ModalContext";
 import "./BinPage.css";
 
 export default function BinPage() {
-  const [deletedNotes, setDeletedNotes] = useState<Note[]>([]);
-  const [deletedFolders, setDeletedFolders] = useState<Folder[]>([]);
+  const [deletedNotes, setDeletedNotes] = useState<BinNote[]>([]);
+  const [deletedFolders, setDeletedFolders] = useState<BinFolder[]>([]);
+  // cursors of the next pages (null: everything is loaded)
+  const [notesCursor, setNotesCursor] = useState<string | null>(null);
+  const [foldersCursor, setFoldersCursor] = useState<string | null>(null);
   const [isLoading, setIsLoading] = useState(true);
   const navigate = useNavigate();
   const { openConfirmModal } = useModal();
@@ -20,8 +22,10 @@ export default function BinPage() {
     try {
       const notes = await BinService.getDeletedNotes();
       const folders = await BinService.getDeletedFolders();
-      setDeletedNotes(notes);
-      setDeletedFolders(folders);
+      setDeletedNotes(notes.items);
+      setNotesCursor(notes.nextCursor ?? null);
+      setDeletedFolders(folders.items);
+      setFoldersCursor(folders.nextCursor ?? null);
     } catch (error) {
       console.error("Erreur lors du chargement des éléments supprimés", error);
     } finally {
@@ -33,6 +37,20 @@ export default function BinPage() {
     loadBin();
   }, []);
 
+  const loadMoreNotes = async () => {
+    if (!notesCursor) return;
+    const page = await BinService.getDeletedNotes(notesCursor);
+    setDeletedNotes((notes) => [...notes, ...page.items]);
+    setNotesCursor(page.nextCursor ?? null);
+  };
+
+  const loadMoreFolders = async () => {
+    if (!foldersCursor) return;
+    const page = await BinService.getDeletedFolders(foldersCursor);
+    setDeletedFolders((folders) => [...folders, ...page.items]);
+    setFoldersCursor(page.nextCursor ?? null);
+  };
+
   const handleRestoreNote = async (id: number) => {
     await BinService.restoreNote(id);
     loadBin();
@@ -67,6 +85,17 @@ export default function BinPage() {
     );
   };
 
+  const handleEmptyBin = () => {
+    openConfirmModal(
+      "Vider la Corbeille",
+      "Voulez-vous vraiment effacer tous ces vestiges à jamais ?",
+      async () => {
+        await BinService.emptyBin();
+        loadBin();
+      }
+    );
+  };
+
   return (
     <div className="bin-page">
       <div className="bin-header">
@@ -74,6 +103,11 @@ export default function BinPage() {
           <FontAwesomeIcon icon={faArrowLeft} /> Retourner à la surface
         </button>
         <h1>Vos éléments supprimés</h1>
+        {(deletedNotes.length > 0 || deletedFolders.length > 0) && (
+          <button onClick={handleEmptyBin} className="btn-empty">
+            <FontAwesomeIcon icon={faTrash} /> Vider la corbeille
+          </button>
+        )}
       </div>
 
       
@@ -89,10 +123,10 @@ export default function BinPage() {
                   <li key={note.id} className="bin-item">
                     <span>{note.title}</span>
                     <div className="bin-actions">
-                      <button onClick={() => handleRestoreNote(note.id!)} title="Restaurer">
+                      <button onClick={() => handleRestoreNote(note.id)} title="Restaurer">
                         <FontAwesomeIcon icon={faClockRotateLeft} />
                       </button>
-                      <button onClick={() => handlePermanentDeleteNote(note.id!)} className="btn-delete" title="Supprimer définitivement">
+                      <button onClick={() => handlePermanentDeleteNote(note.id)} className="btn-delete" title="Supprimer définitivement">
                         <FontAwesomeIcon icon={faTrash} />
                       </button>
                     </div>
@@ -100,6 +134,9 @@ export default function BinPage() {
                 ))}
               </ul>
             )}
+            {notesCursor && (
+              <button onClick={loadMoreNotes} className="btn-more">Exhumer d'autres notes</button>
+            )}
           </section>
 
           <section>
@@ -123,6 +160,9 @@ export default function BinPage() {
                 ))}
               </ul>
             )}
+            {foldersCursor && (
+              <button onClick={loadMoreFolders} className="btn-more">Exhumer d'autres dossiers</button>
+            )}
           </section>
         </div>
       )}
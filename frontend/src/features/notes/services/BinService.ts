@@ -1,17 +1,17 @@
 import api from '../../../services/api';
-import type { Note } from '../models/Note';
-import type { Folder } from '../models/Folder';
+import type { BinFolder, BinNote, BinOperationResult, BinPageResult, BinSelection } from '../models/BinEntry';
 
 const BinService = {
   
   // --- NOTES ---
   /**
-   * Retrieves deleted notes.
-   * GET /corbeille
-   * @return Array of deleted notes
+   * Retrieves a page of deleted notes (without their content).
+   * GET /corbeille?cursor=...
+   * @param cursor nextCursor of the previous page (none: first page)
+   * @return Page of deleted notes, most recent first
    */
-  getDeletedNotes: async (): Promise<Note[]> => {
-    const response = await api.get<Note[]>('/corbeille');
+  getDeletedNotes: async (cursor?: string): Promise<BinPageResult<BinNote>> => {
+    const response = await api.get<BinPageResult<BinNote>>('/corbeille', { params: { cursor } });
     return response.data;
   },
 
@@ -35,13 +35,14 @@ const BinService = {
   },
 
   /**
-   * Retrieves deleted folders.
-   * GET /corbeille/folders
-   * Also, it includes their notes and children folders.
-   * @return Array of deleted folders
+   * Retrieves a page of deleted folders.
+   * GET /corbeille/folders?cursor=...
+   * Only the folders sent to the bin themselves: their contents come back with them on restore.
+   * @param cursor nextCursor of the previous page (none: first page)
+   * @return Page of deleted folders, most recent first
    */
-  getDeletedFolders: async (): Promise<Folder[]> => {
-    const response = await api.get<Folder[]>('/corbeille/folders');
+  getDeletedFolders: async (cursor?: string): Promise<BinPageResult<BinFolder>> => {
+    const response = await api.get<BinPageResult<BinFolder>>('/corbeille/folders', { params: { cursor } });
     return response.data;
   },
 
@@ -62,6 +63,39 @@ const BinService = {
   permanentDeleteFolder: async (id: number): Promise<void> => {
     await api.delete(`/corbeille/folders/${id}`);
   },
+
+  // -- BULK --
+  /**
+   * Restores several notes and folders at once.
+   * POST /corbeille/restore
+   * @param selection Ids of the notes and folders to restore
+   * @return Number of notes and folders restored
+   */
+  restoreSelection: async (selection: BinSelection): Promise<BinOperationResult> => {
+    const response = await api.post<BinOperationResult>('/corbeille/restore', selection);
+    return response.data;
+  },
+
+  /**
+   * Permanently deletes several notes and folders (with their contents) at once.
+   * POST /corbeille/purge
+   * @param selection Ids of the notes and folders to delete
+   * @return Number of notes and folders deleted
+   */
+  purgeSelection: async (selection: BinSelection): Promise<BinOperationResult> => {
+    const response = await api.post<BinOperationResult>('/corbeille/purge', selection);
+    return response.data;
+  },
+
+  /**
+   * Empties the bin.
+   * DELETE /corbeille
+   * @return Number of notes and folders deleted
+   */
+  emptyBin: async (): Promise<BinOperationResult> => {
+    const response = await api.delete<BinOperationResult>('/corbeille');
+    return response.data;
+  },
 };
 
 export default BinService;
@@ -48,6 +48,15 @@ const NoteService = {
     const response = await api.get<Blob>('/notes/export/zip', { responseType: 'blob' });
     return response.data;
   },
+
+  /**
+   * Exporte une note en PDF (rendu par le serveur).
+   * GET /notes/{id}/export/pdf
+   */
+  exportPdf: async (id: number): Promise<Blob> => {
+    const response = await api.get<Blob>(`/notes/${id}/export/pdf`, { responseType: 'blob' });
+    return response.data;
+  },
 };
 
 export default NoteService;